@@ -0,0 +1,105 @@
+package com.paulcera.bentabox.security.config;
+
+import com.paulcera.bentabox.security.jfr.RecordingPasswordEncoder;
+import com.paulcera.bentabox.security.util.PasswordHashCalibrator;
+import java.time.Duration;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Builds the application {@link PasswordEncoder}.
+ * <p>
+ * New hashes are written with the {@code encoder} algorithm ({@code bcrypt} or {@code argon2}) and prefixed with its
+ * id; existing hashes of either algorithm, and legacy unprefixed BCrypt hashes, keep matching. When {@code calibrate}
+ * is on, the work factor of the encoding algorithm (BCrypt strength or Argon2 iterations) is raised at startup until a
+ * single hash takes about {@code target-latency}; the configured value is the floor. Stored hashes below the current
+ * parameters are upgraded on the next successful login.
+ * <p>
+ * Each node calibrates on its own hardware, and nodes that settle on different costs keep upgrading each other's
+ * hashes. The calibrated cost is therefore logged at warn level together with the properties that pin it; clusters
+ * should set those and turn {@code calibrate} off.
+ * <p>
+ * The encoder is wrapped in a {@link RecordingPasswordEncoder}, so every hash shows up in flight recordings.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int MAX_ARGON2_ITERATIONS = 64;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+
+    private final String encoderId;
+    private final boolean calibrate;
+    private final Duration targetLatency;
+    private final int bcryptStrength;
+    private final int argon2Iterations;
+    private final int argon2Memory;
+    private final int argon2Parallelism;
+
+    @Autowired
+    public PasswordEncoderConfig(@Value("${spring.application.security.password.encoder:bcrypt}") String encoderId,
+        @Value("${spring.application.security.password.calibrate:true}") boolean calibrate,
+        @Value("${spring.application.security.password.target-latency:250ms}") Duration targetLatency,
+        @Value("${spring.application.security.password.bcrypt.strength:10}") int bcryptStrength,
+        @Value("${spring.application.security.password.argon2.iterations:2}") int argon2Iterations,
+        @Value("${spring.application.security.password.argon2.memory:19456}") int argon2Memory,
+        @Value("${spring.application.security.password.argon2.parallelism:1}") int argon2Parallelism) {
+        this.encoderId = encoderId;
+        this.calibrate = calibrate;
+        this.targetLatency = targetLatency;
+        this.bcryptStrength = bcryptStrength;
+        this.argon2Iterations = argon2Iterations;
+        this.argon2Memory = argon2Memory;
+        this.argon2Parallelism = argon2Parallelism;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        if (!BCRYPT.equals(encoderId) && !ARGON2.equals(encoderId)) {
+            throw new IllegalStateException("Unsupported password encoder: " + encoderId);
+        }
+
+        int strength = bcryptStrength;
+        int iterations = argon2Iterations;
+        if (calibrate && BCRYPT.equals(encoderId)) {
+            strength = PasswordHashCalibrator.calibrate(BCryptPasswordEncoder::new, bcryptStrength,
+                MAX_BCRYPT_STRENGTH, targetLatency);
+            log.warn("Calibrated BCrypt strength {} for a target of {}. Pin it on every node with "
+                + "spring.application.security.password.bcrypt.strength={} and "
+                + "spring.application.security.password.calibrate=false", strength, targetLatency, strength);
+        } else if (calibrate) {
+            iterations = PasswordHashCalibrator.calibrate(this::argon2, argon2Iterations, MAX_ARGON2_ITERATIONS,
+                targetLatency);
+            log.warn("Calibrated Argon2id iterations {} for a target of {}. Pin it on every node with "
+                + "spring.application.security.password.argon2.iterations={} and "
+                + "spring.application.security.password.calibrate=false", iterations, targetLatency, iterations);
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encoderId,
+            Map.of(BCRYPT, bcrypt, ARGON2, argon2(iterations)));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new RecordingPasswordEncoder(encoder, encoderId);
+    }
+
+    private PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism, argon2Memory,
+            iterations);
+    }
+
+}
@@ -1,8 +1,14 @@
 package com.paulcera.bentabox.security.config;
 
 
+import com.paulcera.bentabox.security.controller.JwksController;
+import com.paulcera.bentabox.security.filter.ConcurrencyLimitFilter;
 import com.paulcera.bentabox.security.filter.JWTFilter;
+import java.util.Arrays;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,10 +20,13 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -26,34 +35,54 @@ public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
     private final JWTFilter jwtFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final String[] claimsOnlyPaths;
 
     @Autowired
-    public SecurityConfig(UserDetailsService userDetailsService, JWTFilter jwtFilter) {
+    public SecurityConfig(UserDetailsService userDetailsService, JWTFilter jwtFilter,
+        ConcurrencyLimitFilter concurrencyLimitFilter,
+        @Value("${spring.application.security.jwt.claims-only-paths:}") String[] claimsOnlyPaths) {
         this.userDetailsService = userDetailsService;
         this.jwtFilter = jwtFilter;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.claimsOnlyPaths = claimsOnlyPaths;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        jwtFilter.setClaimsOnlyRequestMatcher(claimsOnlyRequestMatcher());
+        jwtFilter.setRefreshTokenRequestMatcher(new OrRequestMatcher(new AntPathRequestMatcher("/api/auth/refresh"),
+            new AntPathRequestMatcher("/api/auth/logout")));
+
         http.csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(request -> request
                 .requestMatchers("/api/auth/login").permitAll()
+                .requestMatchers(JwksController.JWKS_PATH).permitAll()
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                 .anyRequest().authenticated())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(concurrencyLimitFilter, DisableEncodeUrlFilter.class)
             .addFilterBefore(jwtFilter, BasicAuthenticationFilter.class);
 
         return http.build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    private RequestMatcher claimsOnlyRequestMatcher() {
+        if (claimsOnlyPaths.length == 0) {
+            return request -> false;
+        }
+
+        List<RequestMatcher> matchers = Arrays.stream(claimsOnlyPaths)
+            .map(AntPathRequestMatcher::new)
+            .map(RequestMatcher.class::cast)
+            .toList();
+        return new OrRequestMatcher(matchers);
     }
 
     @Bean
-    public DaoAuthenticationProvider daoAuthenticationProvider() {
+    public DaoAuthenticationProvider daoAuthenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
         provider.setUserDetailsService(userDetailsService);
         return provider;
     }
@@ -6,6 +6,7 @@ import com.paulcera.bentabox.security.exception.AlreadyLoggedInException;
 import com.paulcera.bentabox.security.model.AuthenticationToken;
 import com.paulcera.bentabox.security.service.AuthenticationService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -25,13 +26,14 @@ public class AuthenticationController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ResponseMessage> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<ResponseMessage>> login(@RequestBody LoginRequest loginRequest,
+        HttpServletRequest request) {
         if (request.getUserPrincipal() != null) {
             throw new AlreadyLoggedInException("Already logged in.");
         }
 
-        AuthenticationToken token = authenticationService.authenticate(loginRequest);
-        return ResponseEntity.ok(new ResponseMessage("Successfully logged in.", token));
+        return authenticationService.authenticateAsync(loginRequest, request.getRemoteAddr())
+            .thenApply(token -> ResponseEntity.ok(new ResponseMessage("Successfully logged in.", token)));
     }
 
     @PostMapping("/logout")
@@ -41,6 +43,13 @@ public class AuthenticationController {
         return ResponseEntity.ok(new ResponseMessage("Successfully logged out."));
     }
 
+    @PostMapping("/logout-all")
+    public ResponseEntity<ResponseMessage> logoutEverywhere() {
+        authenticationService.initiateLogoutEverywhere();
+
+        return ResponseEntity.ok(new ResponseMessage("Successfully logged out of all sessions."));
+    }
+
     @PostMapping("/refresh")
     public ResponseEntity<ResponseMessage> refresh(HttpServletRequest request) {
         AuthenticationToken token = authenticationService.issueNewToken(request);
@@ -0,0 +1,68 @@
+package com.paulcera.bentabox.security.controller;
+
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.security.service.JWTService;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Publishes the public signing keys as a JSON Web Key Set, so that other services can verify tokens without calling
+ * back into this one.
+ * <p>
+ * The set only changes when keys are rotated, so responses carry an ETag derived from the key ids and may be cached
+ * for {@code jwks.max-age}. Rotated-out keys stay in the set for as long as they are in the key ring.
+ */
+@RestController
+public class JwksController {
+
+    public static final String JWKS_PATH = "/.well-known/jwks.json";
+
+    private final JWTService jwtService;
+    private final Duration maxAge;
+
+    @Autowired
+    public JwksController(JWTService jwtService,
+        @Value("${spring.application.security.jwt.jwks.max-age:5m}") Duration maxAge) {
+        this.jwtService = jwtService;
+        this.maxAge = maxAge;
+    }
+
+    @GetMapping(JWKS_PATH)
+    public ResponseEntity<Map<String, List<PublicJwk<?>>>> jwks(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Map<String, PublicKey> publicKeys = jwtService.getPublicKeys();
+        String eTag = "\"" + TokenDigest.of(String.join(",", publicKeys.keySet())) + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        List<PublicJwk<?>> keys = publicKeys.entrySet().stream()
+            .<PublicJwk<?>>map(entry -> toJwk(entry.getKey(), entry.getValue()))
+            .toList();
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(Map.of("keys", keys));
+    }
+
+    private static PublicJwk<?> toJwk(String keyId, PublicKey publicKey) {
+        return Jwks.builder()
+            .key(publicKey)
+            .id(keyId)
+            .algorithm("EC".equals(publicKey.getAlgorithm()) ? "ES256" : "EdDSA")
+            .publicKeyUse("sig")
+            .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.paulcera.bentabox.security.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+@Getter
+public class LoginCapacityExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginCapacityExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+}
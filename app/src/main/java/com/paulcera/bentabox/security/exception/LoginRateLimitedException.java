@@ -0,0 +1,16 @@
+package com.paulcera.bentabox.security.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+@Getter
+public class LoginRateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+}
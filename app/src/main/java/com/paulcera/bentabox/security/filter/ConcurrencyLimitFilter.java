@@ -0,0 +1,115 @@
+package com.paulcera.bentabox.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.core.dto.ResponseMessage;
+import com.paulcera.bentabox.security.util.AimdConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load with 503 once more requests are in flight than an {@link AimdConcurrencyLimit} allows.
+ * <p>
+ * Runs first in the security filter chain, so a rejected request costs no token parsing and no database work. The
+ * limit backs off when requests get slower than the latency threshold, for example when the database stalls, and grows
+ * again while they stay fast. By default it starts at, and never grows past, the servlet container's thread count, so
+ * it only ever sheds load that the threads could not have served in time anyway. Only the time a request holds its
+ * servlet thread is measured; work handed to another executor (such as login) is bounded there. Actuator endpoints are
+ * never shed so health checks keep answering. Exported meters: {@code concurrency.limit}, {@code concurrency.in-flight}
+ * and {@code concurrency.admissions{outcome=accepted|rejected}}.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final AimdConcurrencyLimit concurrencyLimit;
+    private final Duration retryAfter;
+    private final ObjectMapper objectMapper;
+    private final Counter accepted;
+    private final Counter rejected;
+
+    @Autowired
+    public ConcurrencyLimitFilter(
+        @Value("${spring.application.security.concurrency-limit.enabled:true}") boolean enabled,
+        @Value("${spring.application.security.concurrency-limit.initial-limit:${server.tomcat.threads.max:200}}")
+        int initialLimit,
+        @Value("${spring.application.security.concurrency-limit.min-limit:4}") int minLimit,
+        @Value("${spring.application.security.concurrency-limit.max-limit:${server.tomcat.threads.max:200}}")
+        int maxLimit,
+        @Value("${spring.application.security.concurrency-limit.latency-threshold:500ms}") Duration latencyThreshold,
+        @Value("${spring.application.security.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+        @Value("${spring.application.security.concurrency-limit.retry-after:1s}") Duration retryAfter,
+        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(enabled, new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(),
+            backoffRatio, System::nanoTime), retryAfter, objectMapper, meterRegistry);
+    }
+
+    ConcurrencyLimitFilter(boolean enabled, AimdConcurrencyLimit concurrencyLimit, Duration retryAfter,
+        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.concurrencyLimit = concurrencyLimit;
+        this.retryAfter = retryAfter;
+        this.objectMapper = objectMapper;
+        this.accepted = admissions(meterRegistry, "accepted");
+        this.rejected = admissions(meterRegistry, "rejected");
+        Gauge.builder("concurrency.limit", concurrencyLimit, AimdConcurrencyLimit::getLimit)
+            .description("Current adaptive limit on concurrent requests")
+            .register(meterRegistry);
+        Gauge.builder("concurrency.in-flight", concurrencyLimit, AimdConcurrencyLimit::getInFlight)
+            .description("Requests currently holding a concurrency slot")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        if (!concurrencyLimit.tryAcquire()) {
+            rejected.increment();
+            reject(response);
+            return;
+        }
+
+        accepted.increment();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ResponseMessage("Server is busy, try again later."));
+    }
+
+    private static Counter admissions(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("concurrency.admissions")
+            .description("Admission decisions of the concurrency limiter")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.paulcera.bentabox.security.filter;
+
+import com.paulcera.bentabox.jwt.TokenAuthenticationFilter;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.jfr.TokenVerifyEvent;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.service.AccessTokenDenylist;
+import com.paulcera.bentabox.security.service.JWTService;
+import com.paulcera.bentabox.security.service.TokenWatermarkRegistry;
+import com.paulcera.bentabox.security.service.VerifiedTokenCache;
+import com.paulcera.bentabox.security.util.Outcome;
+import com.paulcera.bentabox.security.util.OutcomeTimer;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates bearer tokens against the user they were issued to.
+ * <p>
+ * Refresh tokens are only accepted on the requests that consume them, such as rotation and logout, so a leaked refresh
+ * token cannot be used as a year-long access token.
+ * <p>
+ * Each stage is timed under {@code auth.filter}, tagged with the {@code stage} (verify, revocation-check, user-load,
+ * validate) and its {@link Outcome}. Verified claims come from the {@link VerifiedTokenCache} when the same token was
+ * seen before; actual signature checks also emit a {@link TokenVerifyEvent}.
+ */
+@Component
+public class JWTFilter extends TokenAuthenticationFilter {
+
+    private final TokenVerifier tokenVerifier;
+    private final JWTService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final TokenWatermarkRegistry tokenWatermarkRegistry;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final OutcomeTimer verifyTimer;
+    private final OutcomeTimer revocationCheckTimer;
+    private final OutcomeTimer userLoadTimer;
+    private final OutcomeTimer validateTimer;
+
+    private RequestMatcher claimsOnlyRequestMatcher = request -> false;
+    private RequestMatcher refreshTokenRequestMatcher = request -> false;
+
+    @Autowired
+    public JWTFilter(TokenVerifier tokenVerifier, JWTService jwtService, UserDetailsService userDetailsService,
+        TokenWatermarkRegistry tokenWatermarkRegistry, AccessTokenDenylist accessTokenDenylist,
+        VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        super(tokenVerifier);
+        this.tokenVerifier = tokenVerifier;
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenWatermarkRegistry = tokenWatermarkRegistry;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.verifyTimer = stageTimer(meterRegistry, "verify");
+        this.revocationCheckTimer = stageTimer(meterRegistry, "revocation-check");
+        this.userLoadTimer = stageTimer(meterRegistry, "user-load");
+        this.validateTimer = stageTimer(meterRegistry, "validate");
+    }
+
+    /**
+     * Requests matching this matcher are authenticated from the verified token claims alone, without loading the user.
+     * Everything else keeps going through the {@link UserDetailsService}.
+     */
+    public void setClaimsOnlyRequestMatcher(RequestMatcher claimsOnlyRequestMatcher) {
+        this.claimsOnlyRequestMatcher = claimsOnlyRequestMatcher;
+    }
+
+    /**
+     * Requests matching this matcher may authenticate with a refresh token. Everything else requires an access token.
+     */
+    public void setRefreshTokenRequestMatcher(RequestMatcher refreshTokenRequestMatcher) {
+        this.refreshTokenRequestMatcher = refreshTokenRequestMatcher;
+    }
+
+    @Override
+    protected Optional<TokenClaims> verify(String token) {
+        long start = System.nanoTime();
+        try {
+            TokenClaims claims = verifiedTokenCache.verify(token, tokenVerifier);
+            verifyTimer.record(start, Outcome.VALID);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            verifyTimer.record(start, Outcome.ofRejectedToken(e));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    protected void authenticate(TokenClaims claims, HttpServletRequest request) {
+        long start = System.nanoTime();
+        if (claims.subject() == null) {
+            revocationCheckTimer.record(start, Outcome.MALFORMED);
+            return;
+        }
+        if (tokenWatermarkRegistry.isIssuedBeforeWatermark(claims) || accessTokenDenylist.isDenied(claims)) {
+            revocationCheckTimer.record(start, Outcome.REVOKED);
+            return;
+        }
+        revocationCheckTimer.record(start, Outcome.VALID);
+
+        start = System.nanoTime();
+        if (jwtService.isRefreshToken(claims) && !refreshTokenRequestMatcher.matches(request)) {
+            validateTimer.record(start, Outcome.REJECTED);
+            return;
+        }
+
+        if (isClaimsOnly(claims, request)) {
+            setAuthentication(UserPrincipal.fromClaims(claims), authoritiesOf(claims), request);
+            return;
+        }
+
+        UserDetails userDetails = loadUser(claims.subject());
+
+        start = System.nanoTime();
+        if (jwtService.isTokenValidForUser(claims, userDetails)) {
+            validateTimer.record(start, Outcome.VALID);
+            setAuthentication(userDetails, userDetails.getAuthorities(), request);
+        } else {
+            validateTimer.record(start, claims.isExpired() ? Outcome.EXPIRED : Outcome.REJECTED);
+        }
+    }
+
+    private UserDetails loadUser(String username) {
+        long start = System.nanoTime();
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            userLoadTimer.record(start, Outcome.VALID);
+            return userDetails;
+        } catch (UsernameNotFoundException e) {
+            userLoadTimer.record(start, Outcome.REJECTED);
+            throw e;
+        }
+    }
+
+    private static OutcomeTimer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return new OutcomeTimer(meterRegistry, "auth.filter", "Time spent in each stage of bearer token authentication",
+            "stage", stage);
+    }
+
+    private boolean isClaimsOnly(TokenClaims claims, HttpServletRequest request) {
+        return claims.userId() != null && claims.authorities() != null && claimsOnlyRequestMatcher.matches(request);
+    }
+}
@@ -0,0 +1,35 @@
+package com.paulcera.bentabox.security.jfr;
+
+import com.paulcera.bentabox.security.util.Outcome;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the authentication flight recorder events: a timed stage that ends with an {@link Outcome}.
+ * <p>
+ * Events are used as {@code new}, {@link #begin()}, the work, then {@link #commit(Outcome)}. While no recording is
+ * running, {@code begin} and {@code commit} do nothing and the JIT removes the allocation, so they can stay in the hot
+ * path. Like all application events they are enabled by default, so any recording, such as one started with
+ * {@code -XX:StartFlightRecording}, picks them up; a {@code .jfc} file can switch them off or set a {@code threshold}
+ * by name. Stack traces are off by default to keep enabled recordings cheap; the {@code stackTrace} setting turns them
+ * back on.
+ */
+@Category({"Benta Box", "Authentication"})
+@StackTrace(false)
+public abstract class OutcomeEvent extends Event {
+
+    @Label("Outcome")
+    protected String outcome;
+
+    /**
+     * Ends the event and commits it if a recording wants it and it passes the recording's duration threshold.
+     */
+    public void commit(Outcome outcome) {
+        if (shouldCommit()) {
+            this.outcome = outcome.tag();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.paulcera.bentabox.security.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.paulcera.bentabox.PasswordHash")
+@Label("Password Hash")
+@Description("Hashing a password, or hashing a presented password to match it against a stored hash")
+public class PasswordHashEvent extends OutcomeEvent {
+
+    @Label("Operation")
+    private final String operation;
+
+    @Label("Algorithm")
+    private final String algorithm;
+
+    public PasswordHashEvent(String operation, String algorithm) {
+        this.operation = operation;
+        this.algorithm = algorithm;
+    }
+}
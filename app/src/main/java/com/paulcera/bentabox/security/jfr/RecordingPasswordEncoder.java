@@ -0,0 +1,56 @@
+package com.paulcera.bentabox.security.jfr;
+
+import com.paulcera.bentabox.security.config.PasswordEncoderConfig;
+import com.paulcera.bentabox.security.util.Outcome;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Emits a {@link PasswordHashEvent} around every {@code encode} and {@code matches} of the wrapped encoder, which
+ * covers the hash checks the {@code DaoAuthenticationProvider} runs on login, including the dummy check it runs for
+ * unknown users.
+ * <p>
+ * The algorithm of a match is read from the id prefix of the stored hash; unprefixed hashes are legacy BCrypt.
+ */
+public class RecordingPasswordEncoder implements PasswordEncoder {
+
+    private static final String ENCODE = "encode";
+    private static final String MATCHES = "matches";
+
+    private final PasswordEncoder delegate;
+    private final String encoderId;
+
+    public RecordingPasswordEncoder(PasswordEncoder delegate, String encoderId) {
+        this.delegate = delegate;
+        this.encoderId = encoderId;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent(ENCODE, encoderId);
+        event.begin();
+        String encoded = delegate.encode(rawPassword);
+        event.commit(Outcome.VALID);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent(MATCHES, algorithmOf(encodedPassword));
+        event.begin();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        event.commit(matches ? Outcome.VALID : Outcome.REJECTED);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static String algorithmOf(String encodedPassword) {
+        if (encodedPassword != null && encodedPassword.startsWith("{" + PasswordEncoderConfig.ARGON2 + "}")) {
+            return PasswordEncoderConfig.ARGON2;
+        }
+        return PasswordEncoderConfig.BCRYPT;
+    }
+}
@@ -0,0 +1,11 @@
+package com.paulcera.bentabox.security.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.paulcera.bentabox.RefreshTokenPersist")
+@Label("Refresh Token Persist")
+@Description("Storing a newly issued refresh token")
+public class RefreshTokenPersistEvent extends OutcomeEvent {
+}
@@ -0,0 +1,18 @@
+package com.paulcera.bentabox.security.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.paulcera.bentabox.TokenSign")
+@Label("Token Sign")
+@Description("Building and signing an access or refresh token")
+public class TokenSignEvent extends OutcomeEvent {
+
+    @Label("Token Type")
+    private final String tokenType;
+
+    public TokenSignEvent(String tokenType) {
+        this.tokenType = tokenType;
+    }
+}
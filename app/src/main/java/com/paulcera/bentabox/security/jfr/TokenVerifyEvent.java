@@ -0,0 +1,11 @@
+package com.paulcera.bentabox.security.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.paulcera.bentabox.TokenVerify")
+@Label("Token Verify")
+@Description("Checking the signature of a token and decoding its claims")
+public class TokenVerifyEvent extends OutcomeEvent {
+}
@@ -0,0 +1,11 @@
+package com.paulcera.bentabox.security.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.paulcera.bentabox.UserLoad")
+@Label("User Load")
+@Description("Loading a user from the database on a principal cache miss")
+public class UserLoadEvent extends OutcomeEvent {
+}
@@ -0,0 +1,26 @@
+package com.paulcera.bentabox.security.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marks a one-off data migration as done, so that it is not attempted again on the next start.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppliedMigration {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Instant appliedDate;
+}
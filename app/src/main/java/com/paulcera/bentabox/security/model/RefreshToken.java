@@ -1,13 +1,16 @@
 package com.paulcera.bentabox.security.model;
 
+import com.paulcera.bentabox.jwt.TokenDigest;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import java.time.Instant;
 import java.util.Objects;
 import lombok.AllArgsConstructor;
@@ -15,6 +18,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_refresh_token_expiry_date", columnList = "expiryDate"),
+    @Index(name = "idx_refresh_token_revoked_date", columnList = "revokedDate"),
+    @Index(name = "idx_refresh_token_family_id", columnList = "familyId")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -24,8 +32,8 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token", nullable = false, unique = true, length = TokenDigest.LENGTH)
+    private String tokenDigest;
 
     @Column(nullable = false)
     private Instant expiryDate;
@@ -36,21 +44,21 @@ public class RefreshToken {
     @Column
     private Instant revokedDate;
 
+    @Column(length = 36)
+    private String familyId;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "web_user_id", nullable = false)
     private WebUser webUser;
 
-    public RefreshToken(String token, WebUser webUser, long expiration) {
-        this.token = token;
+    public RefreshToken(String tokenDigest, String familyId, WebUser webUser, long expiration) {
+        this.tokenDigest = tokenDigest;
+        this.familyId = familyId;
         this.expiryDate = Instant.now().plusMillis(expiration);
         this.createdDate = Instant.now();
         this.webUser = webUser;
     }
 
-    public void invalidate() {
-        this.revokedDate = Instant.now();
-    }
-
     public boolean isRevoked() {
         return revokedDate != null;
     }
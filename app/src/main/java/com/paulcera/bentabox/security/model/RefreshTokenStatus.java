@@ -0,0 +1,18 @@
+package com.paulcera.bentabox.security.model;
+
+import java.time.Instant;
+
+public record RefreshTokenStatus(Instant revokedDate, Instant expiryDate) {
+
+    public boolean isRevoked() {
+        return revokedDate != null;
+    }
+
+    public boolean isExpired() {
+        return !expiryDate.isAfter(Instant.now());
+    }
+
+    public boolean isActive() {
+        return !isRevoked() && !isExpired();
+    }
+}
@@ -0,0 +1,26 @@
+package com.paulcera.bentabox.security.model;
+
+import java.time.Instant;
+
+/**
+ * Revocation made on one node that every other node has to apply to its in-memory state.
+ *
+ * @param key         token or session id for {@link Type#TOKEN_DENIED}, username otherwise
+ * @param until       denylist expiry for {@link Type#TOKEN_DENIED}, the new watermark for {@link Type#WATERMARK_MOVED}
+ * @param origin      id of the node that published the event
+ * @param publishedAt when the event was published, used to measure propagation lag
+ */
+public record RevocationEvent(
+    Type type,
+    String key,
+    Instant until,
+    String origin,
+    Instant publishedAt
+) {
+
+    public enum Type {
+        TOKEN_DENIED,
+        WATERMARK_MOVED,
+        PRINCIPAL_CHANGED
+    }
+}
@@ -0,0 +1,5 @@
+package com.paulcera.bentabox.security.model;
+
+import java.time.Instant;
+
+public record TokenWatermark(String username, Instant tokensValidAfter) {}
@@ -1,5 +1,6 @@
 package com.paulcera.bentabox.security.model;
 
+import com.paulcera.bentabox.jwt.TokenClaims;
 import java.util.Collection;
 import java.util.List;
 import org.springframework.security.core.GrantedAuthority;
@@ -8,6 +9,17 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 public record UserPrincipal(WebUser webUser) implements UserDetails {
 
+    /**
+     * Builds a principal from verified token claims only. The wrapped {@link WebUser} carries just the id and username
+     * and has no password.
+     */
+    public static UserPrincipal fromClaims(TokenClaims claims) {
+        WebUser webUser = new WebUser();
+        webUser.setId(claims.userId());
+        webUser.setUsername(claims.subject());
+        return new UserPrincipal(webUser);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("USER"));
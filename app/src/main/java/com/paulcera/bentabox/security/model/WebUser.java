@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import java.time.Instant;
 import java.util.Objects;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -34,6 +35,9 @@ public class WebUser {
     @Embedded
     private FullName fullName;
 
+    @Column
+    private Instant tokensValidAfter;
+
     public static WebUser createFromForm(WebUserForm form, PasswordEncoder passwordEncoder) {
         WebUser webUser = new WebUser();
         webUser.setUsername(form.getUsername());
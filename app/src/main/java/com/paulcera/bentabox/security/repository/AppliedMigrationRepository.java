@@ -0,0 +1,10 @@
+package com.paulcera.bentabox.security.repository;
+
+import com.paulcera.bentabox.security.model.AppliedMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppliedMigrationRepository extends JpaRepository<AppliedMigration, String> {
+
+}
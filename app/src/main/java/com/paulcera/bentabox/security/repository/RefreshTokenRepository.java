@@ -0,0 +1,51 @@
+package com.paulcera.bentabox.security.repository;
+
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.model.RefreshTokenStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Integer> {
+
+    boolean existsByTokenDigest(String tokenDigest);
+
+    @Query("SELECT new com.paulcera.bentabox.security.model.RefreshTokenStatus(token.revokedDate, token.expiryDate) "
+        + "FROM RefreshToken token WHERE token.tokenDigest = :tokenDigest")
+    Optional<RefreshTokenStatus> findStatusByTokenDigest(String tokenDigest);
+
+    @Modifying
+    @Query("UPDATE RefreshToken token SET token.revokedDate = :revokedDate "
+        + "WHERE token.tokenDigest = :tokenDigest AND token.revokedDate IS NULL")
+    int revokeByTokenDigest(String tokenDigest, Instant revokedDate);
+
+    @Modifying
+    @Query("UPDATE RefreshToken token SET token.revokedDate = :revokedDate "
+        + "WHERE token.tokenDigest = :tokenDigest AND token.revokedDate IS NULL AND token.expiryDate > :revokedDate")
+    int revokeActiveByTokenDigest(String tokenDigest, Instant revokedDate);
+
+    @Modifying
+    @Query("UPDATE RefreshToken token SET token.revokedDate = :revokedDate "
+        + "WHERE token.familyId = :familyId AND token.revokedDate IS NULL")
+    int revokeFamily(String familyId, Instant revokedDate);
+
+    /**
+     * Rows already locked by another node's purge are skipped rather than waited on, so concurrent purges split the work
+     * instead of queueing behind each other.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM refresh_token WHERE id IN (SELECT id FROM refresh_token "
+        + "WHERE expiry_date < :expiredBefore OR revoked_date < :revokedBefore LIMIT :batchSize "
+        + "FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deletePurgeableBatch(Instant expiredBefore, Instant revokedBefore, int batchSize);
+
+    @Query("SELECT token FROM RefreshToken token WHERE length(token.tokenDigest) <> :digestLength ORDER BY token.id")
+    List<RefreshToken> findWithoutDigest(int digestLength, Pageable pageable);
+
+}
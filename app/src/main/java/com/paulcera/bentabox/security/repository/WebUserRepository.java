@@ -0,0 +1,30 @@
+package com.paulcera.bentabox.security.repository;
+
+import com.paulcera.bentabox.security.model.TokenWatermark;
+import com.paulcera.bentabox.security.model.WebUser;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WebUserRepository extends JpaRepository<WebUser, Integer> {
+
+    Optional<WebUser> findByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE WebUser webUser SET webUser.tokensValidAfter = :tokensValidAfter WHERE webUser.username = :username")
+    int updateTokensValidAfter(String username, Instant tokensValidAfter);
+
+    @Modifying
+    @Query("UPDATE WebUser webUser SET webUser.password = :password WHERE webUser.username = :username")
+    int updatePassword(String username, String password);
+
+    @Query("SELECT new com.paulcera.bentabox.security.model.TokenWatermark(webUser.username, webUser.tokensValidAfter) "
+        + "FROM WebUser webUser WHERE webUser.tokensValidAfter IS NOT NULL")
+    List<TokenWatermark> findAllTokenWatermarks();
+
+}
@@ -0,0 +1,79 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token and session ids that must be rejected before their tokens expire.
+ * <p>
+ * Lookups are a single {@link ConcurrentHashMap} read keyed by the id strings already held in the claims, so the
+ * request path neither locks nor allocates. Every entry is also queued in expiry order and dropped by {@link #sweep()}
+ * once its {@code until} has passed. Callers deny ids for no longer than one access token lifetime, since refresh
+ * tokens are also revoked in the database, which keeps the denylist bounded by the number of revocations within that
+ * window. Its size is published as {@code revocation.denylist.size}.
+ */
+@Component
+public class AccessTokenDenylist {
+
+    private final Map<String, Instant> deniedIds = new ConcurrentHashMap<>();
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+
+    @Autowired
+    public AccessTokenDenylist(MeterRegistry meterRegistry) {
+        Gauge.builder("revocation.denylist.size", deniedIds, Map::size)
+            .description("Token and session ids currently denied")
+            .register(meterRegistry);
+    }
+
+    public void deny(String id, Instant until) {
+        if (id == null || until == null || !until.isAfter(Instant.now())) {
+            return;
+        }
+
+        deniedIds.merge(id, until, (current, updated) -> updated.isAfter(current) ? updated : current);
+        expiries.add(new Expiry(id, until));
+    }
+
+    public boolean isDenied(TokenClaims claims) {
+        return isDenied(claims.tokenId()) || isDenied(claims.sessionId());
+    }
+
+    private boolean isDenied(String id) {
+        return id != null && deniedIds.containsKey(id);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.application.security.jwt.denylist.sweep-interval:30s}")
+    public void sweep() {
+        Expiry expiry;
+        while ((expiry = expiries.poll()) != null) {
+            deniedIds.remove(expiry.id(), expiry.until());
+        }
+    }
+
+    public int size() {
+        return deniedIds.size();
+    }
+
+    private record Expiry(String id, Instant until) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(until.toEpochMilli() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return until.compareTo(((Expiry) other).until());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.paulcera.bentabox.security.service;
+
+
+import com.paulcera.bentabox.jwt.HttpUtil;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.security.dto.LoginRequest;
+import com.paulcera.bentabox.security.exception.InvalidRefreshTokenException;
+import com.paulcera.bentabox.security.exception.TokenNotFoundException;
+import com.paulcera.bentabox.security.model.AuthenticationToken;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.util.Outcome;
+import com.paulcera.bentabox.security.util.OutcomeTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Login, refresh and logout. The login stages (credentials, rehash, issue), refreshes and logouts are timed under
+ * {@code auth.*} and tagged with their {@link Outcome}.
+ */
+@Service
+public class AuthenticationService {
+
+    private final AuthenticationManager authenticationManager;
+    private final JWTService jwtService;
+    private final WebUserService webUserService;
+    private final LoginExecutor loginExecutor;
+    private final LoginRateLimiter loginRateLimiter;
+    private final OutcomeTimer credentialsTimer;
+    private final OutcomeTimer rehashTimer;
+    private final OutcomeTimer issueTimer;
+    private final OutcomeTimer refreshTimer;
+    private final OutcomeTimer logoutTimer;
+
+    @Autowired
+    public AuthenticationService(AuthenticationManager authenticationManager, JWTService jwtService,
+        WebUserService webUserService, LoginExecutor loginExecutor, LoginRateLimiter loginRateLimiter,
+        MeterRegistry meterRegistry) {
+        this.authenticationManager = authenticationManager;
+        this.jwtService = jwtService;
+        this.webUserService = webUserService;
+        this.loginExecutor = loginExecutor;
+        this.loginRateLimiter = loginRateLimiter;
+        this.credentialsTimer = loginStageTimer(meterRegistry, "credentials");
+        this.rehashTimer = loginStageTimer(meterRegistry, "rehash");
+        this.issueTimer = loginStageTimer(meterRegistry, "issue");
+        this.refreshTimer = new OutcomeTimer(meterRegistry, "auth.refresh", "Time to exchange a refresh token");
+        this.logoutTimer = new OutcomeTimer(meterRegistry, "auth.logout", "Time to log out a session");
+    }
+
+    private static OutcomeTimer loginStageTimer(MeterRegistry meterRegistry, String stage) {
+        return new OutcomeTimer(meterRegistry, "auth.login", "Time spent in each stage of a login", "stage", stage);
+    }
+
+    /**
+     * Runs {@link #authenticate(LoginRequest)} on the {@link LoginExecutor} so the password check does not hold a
+     * request thread. Throws {@link com.paulcera.bentabox.security.exception.LoginRateLimitedException} when the
+     * username or client address has run out of attempts, and
+     * {@link com.paulcera.bentabox.security.exception.LoginCapacityExceededException} when the login queue is full;
+     * both before any password is checked.
+     */
+    public CompletableFuture<AuthenticationToken> authenticateAsync(LoginRequest loginRequest, String clientAddress) {
+        loginRateLimiter.checkAttempt(loginRequest.getUsername(), clientAddress);
+
+        return loginExecutor.submit(() -> authenticate(loginRequest));
+    }
+
+    public AuthenticationToken authenticate(LoginRequest loginRequest) {
+        long start = System.nanoTime();
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        } catch (AuthenticationException e) {
+            credentialsTimer.record(start, Outcome.REJECTED);
+            throw e;
+        }
+        credentialsTimer.record(start, Outcome.VALID);
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        WebUser webUser = userPrincipal.webUser();
+        start = System.nanoTime();
+        webUserService.upgradePasswordEncoding(webUser, loginRequest.getPassword());
+        rehashTimer.record(start, Outcome.VALID);
+
+        start = System.nanoTime();
+        String sessionId = UUID.randomUUID().toString();
+        String accessToken = jwtService.generateAccessToken(userPrincipal, sessionId);
+        String refreshToken = jwtService.generateRefreshToken(webUser, sessionId);
+        issueTimer.record(start, Outcome.VALID);
+
+        return new AuthenticationToken(accessToken, refreshToken);
+    }
+
+    @PreAuthorize("hasAuthority('USER')")
+    public void initiateLogout(HttpServletRequest request) {
+        long start = System.nanoTime();
+        String token = HttpUtil.extractAuthToken(request);
+
+        try {
+            jwtService.invalidateToken(token);
+        } catch (TokenNotFoundException e) {
+            logoutTimer.record(start, Outcome.REJECTED);
+            throw e;
+        }
+        logoutTimer.record(start, Outcome.VALID);
+    }
+
+    @PreAuthorize("hasAuthority('USER')")
+    public void initiateLogoutEverywhere() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        webUserService.revokeAllTokens(authentication.getName());
+    }
+
+    @PreAuthorize("hasAuthority('USER')")
+    public AuthenticationToken issueNewToken(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String refreshToken = HttpUtil.extractAuthToken(request);
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        long start = System.nanoTime();
+        String newRefreshToken;
+        try {
+            newRefreshToken = jwtService.rotateRefreshToken(refreshToken, userPrincipal.webUser());
+        } catch (InvalidRefreshTokenException e) {
+            refreshTimer.record(start, Outcome.REJECTED);
+            throw e;
+        }
+        String sessionId = jwtService.verifyToken(newRefreshToken)
+            .map(TokenClaims::sessionId)
+            .orElse(null);
+        String newAccessToken = jwtService.generateAccessToken(userPrincipal, sessionId);
+        refreshTimer.record(start, Outcome.VALID);
+
+        return new AuthenticationToken(newAccessToken, newRefreshToken);
+    }
+}
@@ -0,0 +1,253 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Gathers refresh tokens inserted concurrently, typically by a burst of logins, into one multi-row {@code INSERT}.
+ * <p>
+ * Callers queue their token and block until it is committed. A single writer thread takes the first queued token,
+ * adds whatever else is queued up to {@code max-batch-size}, and when the batch is still short waits up to
+ * {@code max-delay} for more before inserting the batch as one auto-committed statement. Tokens that arrive during a
+ * flush form the next batch, so under load the batches grow without any extra wait, and a lone login waits at most
+ * {@code max-delay}. When a batch fails, its tokens are inserted one by one, so that one bad row only fails its own
+ * login.
+ * <p>
+ * A caller whose token has not been taken into a batch within {@code timeout}, because the writer is stuck or gone,
+ * takes it back and saves it through the {@link RefreshTokenRepository} itself. Each token is claimed exactly once, by
+ * the writer or by its caller, so it is never inserted twice; a caller whose token is already being flushed waits for
+ * that statement to finish. Such fallbacks are counted as {@code refresh.tokens.group.commit.timeouts}.
+ * <p>
+ * Inside a transaction the token is saved through the {@link RefreshTokenRepository} as usual, since it has to commit
+ * or roll back with the rest of it, as in a refresh token rotation. Batch sizes are published as
+ * {@code refresh.tokens.group.commit.batch.size} and flush times as {@code refresh.tokens.group.commit.flush}.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.refresh-token.group-commit.enabled", havingValue = "true")
+public class GroupCommitRefreshTokenWriter implements RefreshTokenWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitRefreshTokenWriter.class);
+
+    private static final String INSERT = "INSERT INTO refresh_token (token, expiry_date, created_date, family_id, "
+        + "web_user_id) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<PendingInsert> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final Counter timeouts;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public GroupCommitRefreshTokenWriter(JdbcTemplate jdbcTemplate, RefreshTokenRepository refreshTokenRepository,
+        @Value("${spring.application.security.refresh-token.group-commit.max-batch-size:128}") int maxBatchSize,
+        @Value("${spring.application.security.refresh-token.group-commit.max-delay:2ms}") Duration maxDelay,
+        @Value("${spring.application.security.refresh-token.group-commit.timeout:1s}") Duration timeout,
+        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.batchSize = DistributionSummary.builder("refresh.tokens.group.commit.batch.size")
+            .description("Refresh tokens inserted by one group commit")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("refresh.tokens.group.commit.flush")
+            .description("Time to insert and commit one group of refresh tokens")
+            .register(meterRegistry);
+        this.timeouts = Counter.builder("refresh.tokens.group.commit.timeouts")
+            .description("Refresh tokens saved by their caller because the writer did not pick them up in time")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::writeBatches, "refresh-token-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer thread once it has flushed the batch in hand. Tokens still queued are flushed here.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join();
+        flushQueued();
+    }
+
+    @Override
+    public void insert(RefreshToken refreshToken) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            refreshTokenRepository.save(refreshToken);
+            return;
+        }
+
+        PendingInsert pending = new PendingInsert(refreshToken, new CompletableFuture<>(), new AtomicBoolean());
+        queue.add(pending);
+        if (!running) {
+            flushQueued();
+        }
+
+        try {
+            pending.committed().get(timeoutNanos, TimeUnit.NANOSECONDS);
+            return;
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException ex) {
+            // fall through and take the token back from the writer
+        }
+
+        if (pending.claim()) {
+            queue.remove(pending);
+            timeouts.increment();
+            refreshTokenRepository.save(refreshToken);
+            return;
+        }
+        try {
+            pending.committed().join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(cause);
+    }
+
+    private void writeBatches() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                flushClaimed(batch);
+            } catch (RuntimeException e) {
+                log.error("Group commit writer failed on a batch of {} refresh tokens", batch.size(), e);
+                batch.forEach(pending -> pending.committed().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void collect(List<PendingInsert> batch) throws InterruptedException {
+        batch.add(queue.take());
+        queue.drainTo(batch, maxBatchSize - batch.size());
+
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            PendingInsert next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void flushQueued() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            flushClaimed(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Flushes the tokens of the batch that the writer can still claim, leaving out those their callers took back.
+     */
+    private void flushClaimed(List<PendingInsert> batch) {
+        batch.removeIf(pending -> !pending.claim());
+        flush(batch);
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            flushTimer.record(() -> insertRows(batch));
+            batchSize.record(batch.size());
+            batch.forEach(pending -> pending.committed().complete(null));
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                batch.get(0).committed().completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} refresh tokens failed, inserting them one by one", batch.size(), e);
+            for (PendingInsert pending : batch) {
+                flush(List.of(pending));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.committed().completeExceptionally(e));
+        }
+    }
+
+    private void insertRows(List<PendingInsert> batch) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + batch.size() * (ROW.length() + 2)).append(INSERT);
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int column = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            RefreshToken token = batch.get(i).refreshToken();
+            sql.append(i == 0 ? "" : ", ").append(ROW);
+            args[column++] = token.getTokenDigest();
+            args[column++] = OffsetDateTime.ofInstant(token.getExpiryDate(), ZoneOffset.UTC);
+            args[column++] = OffsetDateTime.ofInstant(token.getCreatedDate(), ZoneOffset.UTC);
+            args[column++] = token.getFamilyId();
+            args[column++] = token.getWebUser().getId();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private record PendingInsert(RefreshToken refreshToken, CompletableFuture<Void> committed, AtomicBoolean claimed) {
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
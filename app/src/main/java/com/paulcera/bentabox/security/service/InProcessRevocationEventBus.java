@@ -0,0 +1,28 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.model.RevocationEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers events synchronously to the subscribers of this JVM. Meant for single-node setups and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.revocation-bus.type", havingValue = "in-process")
+public class InProcessRevocationEventBus implements RevocationEventBus {
+
+    private final List<Consumer<RevocationEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(RevocationEvent event) {
+        subscribers.forEach(subscriber -> subscriber.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<RevocationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
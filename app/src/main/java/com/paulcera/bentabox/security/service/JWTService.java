@@ -0,0 +1,49 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.WebUser;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.security.core.userdetails.UserDetails;
+
+public interface JWTService {
+
+    String generateAccessToken(UserPrincipal userPrincipal);
+
+    /**
+     * Issues an access token bound to the given refresh family, so that logging the family out also rejects it.
+     */
+    String generateAccessToken(UserPrincipal userPrincipal, String sessionId);
+
+    String generateRefreshToken(WebUser webUser);
+
+    String generateRefreshToken(WebUser webUser, String familyId);
+
+    String rotateRefreshToken(String refreshToken, WebUser webUser);
+
+    /**
+     * Verifies the signature and expiry of the token and decodes its claims in a single pass.
+     *
+     * @return the verified claims, or empty when the token is missing, expired, malformed or signed with an unknown
+     * key
+     */
+    Optional<TokenClaims> verifyToken(String token);
+
+    boolean isTokenValidForUser(TokenClaims claims, UserDetails userDetails);
+
+    /**
+     * Whether the token is a refresh token, judged by its {@code token_use} claim. Tokens issued before that claim are
+     * refresh tokens when they carry a family id or outlive an access token.
+     */
+    boolean isRefreshToken(TokenClaims claims);
+
+    void invalidateToken(String token);
+
+    /**
+     * Public keys that downstream services need to verify tokens locally, by key id. Empty while tokens are
+     * HMAC-signed.
+     */
+    Map<String, PublicKey> getPublicKeys();
+}
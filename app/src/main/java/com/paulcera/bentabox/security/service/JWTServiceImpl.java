@@ -0,0 +1,309 @@
+package com.paulcera.bentabox.security.service;
+
+
+import com.paulcera.bentabox.jwt.JWTKeyRing;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.exception.InvalidRefreshTokenException;
+import com.paulcera.bentabox.security.exception.TokenNotFoundException;
+import com.paulcera.bentabox.security.jfr.RefreshTokenPersistEvent;
+import com.paulcera.bentabox.security.jfr.TokenSignEvent;
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.model.RefreshTokenStatus;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.util.Outcome;
+import com.paulcera.bentabox.security.util.OutcomeTimer;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Issues, verifies and revokes tokens. Signing, verification and every refresh token operation are timed under
+ * {@code jwt.*}, the latter tagged with their {@link Outcome}. Signing, verification and refresh token persistence
+ * also emit flight recorder events from {@code security.jfr}. Verified claims are cached in the
+ * {@link VerifiedTokenCache}.
+ * <p>
+ * The key ring is fixed for the life of the process. Keys are rotated through configuration, as described on
+ * {@code JWTAutoConfiguration}, so that every node can verify a new key before any node signs with it.
+ */
+@Service
+public class JWTServiceImpl implements JWTService {
+
+    private static final String ACCESS_TOKEN = "access";
+    private static final String REFRESH_TOKEN = "refresh";
+
+    private final long accessTokenExpiration;
+    private final long refreshTokenExpiration;
+    private final Duration reuseGracePeriod;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenWriter refreshTokenWriter;
+    private final RevocationPropagator revocationPropagator;
+    private final TokenVerifier tokenVerifier;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Timer accessTokenSignTimer;
+    private final Timer refreshTokenSignTimer;
+    private final Timer refreshTokenPersistTimer;
+    private final OutcomeTimer verifyTimer;
+    private final OutcomeTimer rotateTimer;
+    private final OutcomeTimer revokeTimer;
+
+    @Autowired
+    public JWTServiceImpl(TokenVerifier tokenVerifier,
+        @Value("${spring.application.security.jwt.access-token-expiration}") long accessTokenExpiration,
+        @Value("${spring.application.security.jwt.refresh-token-expiration}") long refreshTokenExpiration,
+        @Value("${spring.application.security.refresh-token.reuse-grace-period:10s}") Duration reuseGracePeriod,
+        RefreshTokenRepository refreshTokenRepository, RefreshTokenWriter refreshTokenWriter,
+        RevocationPropagator revocationPropagator, VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        this.tokenVerifier = tokenVerifier;
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.reuseGracePeriod = reuseGracePeriod;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenWriter = refreshTokenWriter;
+        this.revocationPropagator = revocationPropagator;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.accessTokenSignTimer = signTimer(meterRegistry, ACCESS_TOKEN);
+        this.refreshTokenSignTimer = signTimer(meterRegistry, REFRESH_TOKEN);
+        this.refreshTokenPersistTimer = Timer.builder("jwt.refresh.persist")
+            .description("Time to store a new refresh token")
+            .register(meterRegistry);
+        this.verifyTimer = new OutcomeTimer(meterRegistry, "jwt.verify",
+            "Time to verify a token and decode its claims");
+        this.rotateTimer = new OutcomeTimer(meterRegistry, "jwt.refresh.rotate", "Time to rotate a refresh token");
+        this.revokeTimer = new OutcomeTimer(meterRegistry, "jwt.refresh.revoke", "Time to revoke a refresh token");
+    }
+
+    private static Timer signTimer(MeterRegistry meterRegistry, String tokenType) {
+        return Timer.builder("jwt.sign")
+            .description("Time to build and sign a token")
+            .tag("token", tokenType)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String generateAccessToken(UserPrincipal userPrincipal) {
+        return generateAccessToken(userPrincipal, null);
+    }
+
+    @Override
+    public String generateAccessToken(UserPrincipal userPrincipal, String sessionId) {
+        List<String> authorities = userPrincipal.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .toList();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TokenClaims.TOKEN_USE, ACCESS_TOKEN);
+        claims.put(TokenClaims.USER_ID, userPrincipal.webUser().getId());
+        claims.put(TokenClaims.AUTHORITIES, authorities);
+        if (sessionId != null) {
+            claims.put(TokenClaims.SESSION_ID, sessionId);
+        }
+
+        TokenSignEvent event = new TokenSignEvent(ACCESS_TOKEN);
+        event.begin();
+        long start = System.nanoTime();
+        String token = generateToken(userPrincipal.getUsername(), claims, accessTokenExpiration);
+        accessTokenSignTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        event.commit(Outcome.VALID);
+        return token;
+    }
+
+    @Override
+    public String generateRefreshToken(WebUser webUser) {
+        return generateRefreshToken(webUser, UUID.randomUUID().toString());
+    }
+
+    @Override
+    public String generateRefreshToken(WebUser webUser, String familyId) {
+        return issueRefreshToken(webUser, familyId);
+    }
+
+    private String issueRefreshToken(WebUser webUser, String familyId) {
+        TokenSignEvent signEvent = new TokenSignEvent(REFRESH_TOKEN);
+        signEvent.begin();
+        long start = System.nanoTime();
+        String token = generateToken(webUser.getUsername(),
+            Map.of(TokenClaims.TOKEN_USE, REFRESH_TOKEN, TokenClaims.FAMILY_ID, familyId), refreshTokenExpiration);
+        long signed = System.nanoTime();
+        refreshTokenSignTimer.record(signed - start, TimeUnit.NANOSECONDS);
+        signEvent.commit(Outcome.VALID);
+
+        RefreshTokenPersistEvent persistEvent = new RefreshTokenPersistEvent();
+        persistEvent.begin();
+        try {
+            refreshTokenWriter.insert(new RefreshToken(TokenDigest.of(token), familyId, webUser,
+                refreshTokenExpiration));
+        } catch (RuntimeException e) {
+            persistEvent.commit(Outcome.REJECTED);
+            throw e;
+        }
+        refreshTokenPersistTimer.record(System.nanoTime() - signed, TimeUnit.NANOSECONDS);
+        persistEvent.commit(Outcome.VALID);
+
+        return token;
+    }
+
+    /**
+     * Revokes the presented refresh token and issues its successor in the same family, in one transaction.
+     * <p>
+     * The revocation is a conditional update, so when several refreshes race with the same token exactly one of them
+     * wins. A token that was already rotated within the reuse grace period is simply rejected, since that is what a
+     * terminal sending parallel refreshes looks like. A token rotated before that is treated as replayed, and every
+     * token of its family is revoked.
+     */
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public String rotateRefreshToken(String refreshToken, WebUser webUser) {
+        long start = System.nanoTime();
+        TokenClaims claims;
+        try {
+            claims = parseClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            rotateTimer.record(start, Outcome.ofRejectedToken(e));
+            throw new InvalidRefreshTokenException("RefreshToken is not valid.");
+        }
+        String familyId = claims.get(TokenClaims.FAMILY_ID, String.class);
+        String tokenDigest = TokenDigest.of(refreshToken);
+        Instant now = Instant.now();
+
+        if (refreshTokenRepository.revokeActiveByTokenDigest(tokenDigest, now) == 1) {
+            String successor = issueRefreshToken(webUser, familyId != null ? familyId : UUID.randomUUID().toString());
+            rotateTimer.record(start, Outcome.VALID);
+            return successor;
+        }
+
+        rotateTimer.record(start, rejectRotation(tokenDigest, familyId, now));
+        throw new InvalidRefreshTokenException("RefreshToken is not valid.");
+    }
+
+    /**
+     * Works out why the conditional revocation matched no row, revoking the family when the token was replayed. Only a
+     * replay counts as {@link Outcome#REVOKED}; an unknown token is {@link Outcome#REJECTED}, as is one that lost a
+     * race within the grace period, and an active row past its expiry is {@link Outcome#EXPIRED}.
+     */
+    private Outcome rejectRotation(String tokenDigest, String familyId, Instant now) {
+        Optional<RefreshTokenStatus> status = refreshTokenRepository.findStatusByTokenDigest(tokenDigest);
+        if (status.isEmpty()) {
+            return Outcome.REJECTED;
+        }
+        if (!status.get().isRevoked()) {
+            return Outcome.EXPIRED;
+        }
+        if (!status.get().revokedDate().isBefore(now.minus(reuseGracePeriod))) {
+            return Outcome.REJECTED;
+        }
+
+        if (familyId != null) {
+            refreshTokenRepository.revokeFamily(familyId, now);
+            revocationPropagator.denyToken(familyId, now.plusMillis(accessTokenExpiration));
+        }
+        return Outcome.REVOKED;
+    }
+
+    private String generateToken(String username, Map<String, ?> claims, long expiration) {
+        JWTKeyRing currentKeyRing = tokenVerifier.getKeyRing();
+        long now = System.currentTimeMillis();
+
+        return Jwts
+            .builder()
+            .header().keyId(currentKeyRing.getSigningKeyId()).and()
+            .claims(claims)
+            .id(UUID.randomUUID().toString())
+            .subject(username)
+            .issuedAt(new Date(now))
+            .expiration(new Date(now + expiration))
+            .signWith(currentKeyRing.getSigningKey())
+            .compact();
+    }
+
+    @Override
+    public Map<String, PublicKey> getPublicKeys() {
+        return tokenVerifier.getKeyRing().getPublicKeys();
+    }
+
+    @Override
+    public Optional<TokenClaims> verifyToken(String token) {
+        try {
+            return Optional.of(parseClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private TokenClaims parseClaims(String token) {
+        long start = System.nanoTime();
+        try {
+            TokenClaims claims = verifiedTokenCache.verify(token, tokenVerifier);
+            verifyTimer.record(start, Outcome.VALID);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            verifyTimer.record(start, Outcome.ofRejectedToken(e));
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isTokenValidForUser(TokenClaims claims, UserDetails userDetails) {
+        return !claims.isExpired() && userDetails.getUsername().equals(claims.subject());
+    }
+
+    @Override
+    public boolean isRefreshToken(TokenClaims claims) {
+        String tokenUse = claims.get(TokenClaims.TOKEN_USE, String.class);
+        if (tokenUse != null) {
+            return REFRESH_TOKEN.equals(tokenUse);
+        }
+        if (claims.get(TokenClaims.FAMILY_ID, String.class) != null) {
+            return true;
+        }
+        return claims.issuedAt() != null && claims.expiration() != null
+            && Duration.between(claims.issuedAt(), claims.expiration()).toMillis() > accessTokenExpiration;
+    }
+
+    /**
+     * Revokes the refresh token and denylists it together with its session, so that the access tokens issued
+     * alongside it stop working immediately instead of at their expiry.
+     */
+    @Override
+    @Transactional
+    public void invalidateToken(String token) {
+        long start = System.nanoTime();
+        String tokenDigest = TokenDigest.of(token);
+        Instant now = Instant.now();
+        int revokedTokens = refreshTokenRepository.revokeByTokenDigest(tokenDigest, now);
+
+        if (revokedTokens == 0 && !refreshTokenRepository.existsByTokenDigest(tokenDigest)) {
+            revokeTimer.record(start, Outcome.REJECTED);
+            throw new TokenNotFoundException("No RefreshToken found with value: " + token);
+        }
+        revokeTimer.record(start, revokedTokens == 0 ? Outcome.REVOKED : Outcome.VALID);
+
+        // The refresh token itself is revoked in the database; the denylist only has to outlive the access tokens.
+        Instant accessTokensExpire = now.plusMillis(accessTokenExpiration);
+        verifyToken(token).ifPresent(claims -> {
+            Instant tokenExpires = claims.expiration();
+            revocationPropagator.denyToken(claims.tokenId(),
+                tokenExpires != null && tokenExpires.isBefore(accessTokensExpire) ? tokenExpires : accessTokensExpire);
+            revocationPropagator.denyToken(claims.sessionId(), accessTokensExpire);
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.exception.LoginCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded pool that runs password verification off the request threads.
+ * <p>
+ * Password hashing is deliberately slow, so a burst of logins would otherwise tie up every servlet thread and starve
+ * cheap requests. The pool has a fixed number of threads and a fixed-size queue; once both are full, new logins are
+ * rejected at once with a {@link LoginCapacityExceededException} instead of waiting. Hashing is CPU-bound, so by
+ * default the pool has one thread per available processor and a queue of {@value #QUEUE_PER_THREAD} logins per
+ * thread; either can be pinned with {@code threads} and {@code queue-capacity}. Queue depth and pool usage are
+ * exposed as the {@code executor.*} meters tagged {@code name=login}, the time a login spends queued as
+ * {@code login.executor.wait} and rejections as {@code login.executor.rejected}.
+ */
+@Component
+public class LoginExecutor {
+
+    static final int QUEUE_PER_THREAD = 32;
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public LoginExecutor(@Value("${spring.application.security.login-executor.threads:0}") int threads,
+        @Value("${spring.application.security.login-executor.queue-capacity:0}") int queueCapacity,
+        @Value("${spring.application.security.login-executor.retry-after:1s}") Duration retryAfter,
+        MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : poolSize * QUEUE_PER_THREAD),
+            new LoginThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = retryAfter;
+        this.waitTimer = Timer.builder("login.executor.wait")
+            .description("Time a login waits in the queue before password verification starts")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("login.executor.rejected")
+            .description("Logins rejected because the login queue was full")
+            .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "login", List.of()).bindTo(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new LoginCapacityExceededException("Too many login attempts in progress, try again later.",
+                retryAfter);
+        }
+    }
+
+    int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class LoginThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "login-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.exception.LoginRateLimitedException;
+import com.paulcera.bentabox.security.util.StripedTokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles login attempts per username, and optionally per client address, before any password is checked.
+ * <p>
+ * Every attempt spends a token from each enabled bucket, so a burst of guesses against one account, or from one
+ * terminal, is turned away with a {@link LoginRateLimitedException} without a database lookup or a password hash.
+ * Rejections are counted as {@code login.rate-limited}, tagged with the bucket that was empty.
+ * <p>
+ * The address is the socket peer, so behind a load balancer every terminal shares the balancer's bucket and a busy
+ * store locks itself out. The per-address bucket is therefore off unless {@code address.enabled} is set, which only
+ * makes sense when the app sees client addresses: either directly, or through {@code server.forward-headers-strategy}
+ * with a proxy that overwrites the forwarded headers it receives.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final String MESSAGE = "Too many login attempts, try again later.";
+
+    private final boolean enabled;
+    private final StripedTokenBucket addressBuckets;
+    private final StripedTokenBucket usernameBuckets;
+    private final Counter addressRejections;
+    private final Counter usernameRejections;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${spring.application.security.login-rate-limit.enabled:true}") boolean enabled,
+        @Value("${spring.application.security.login-rate-limit.stripes:16384}") int stripes,
+        @Value("${spring.application.security.login-rate-limit.address.enabled:false}") boolean addressEnabled,
+        @Value("${spring.application.security.login-rate-limit.address.capacity:60}") int addressCapacity,
+        @Value("${spring.application.security.login-rate-limit.address.refill-period:1s}") Duration addressRefill,
+        @Value("${spring.application.security.login-rate-limit.username.capacity:5}") int usernameCapacity,
+        @Value("${spring.application.security.login-rate-limit.username.refill-period:30s}") Duration usernameRefill,
+        MeterRegistry meterRegistry) {
+        this(enabled,
+            addressEnabled ? new StripedTokenBucket(stripes, addressCapacity, addressRefill, System::nanoTime) : null,
+            new StripedTokenBucket(stripes, usernameCapacity, usernameRefill, System::nanoTime), meterRegistry);
+    }
+
+    /**
+     * @param addressBuckets buckets per client address, or {@code null} to limit by username only
+     */
+    LoginRateLimiter(boolean enabled, StripedTokenBucket addressBuckets, StripedTokenBucket usernameBuckets,
+        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.addressBuckets = addressBuckets;
+        this.usernameBuckets = usernameBuckets;
+        this.addressRejections = rejections(meterRegistry, "address");
+        this.usernameRejections = rejections(meterRegistry, "username");
+    }
+
+    public void checkAttempt(String username, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+
+        if (addressBuckets != null) {
+            long wait = addressBuckets.tryAcquire(clientAddress == null ? "" : clientAddress);
+            if (wait > 0) {
+                addressRejections.increment();
+                throw new LoginRateLimitedException(MESSAGE, Duration.ofNanos(wait));
+            }
+        }
+
+        long wait = usernameBuckets.tryAcquire(username == null ? "" : username.toLowerCase(Locale.ROOT));
+        if (wait > 0) {
+            usernameRejections.increment();
+            throw new LoginRateLimitedException(MESSAGE, Duration.ofNanos(wait));
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String bucket) {
+        return Counter.builder("login.rate-limited")
+            .description("Login attempts rejected by the rate limiter")
+            .tag("bucket", bucket)
+            .register(meterRegistry);
+    }
+
+}
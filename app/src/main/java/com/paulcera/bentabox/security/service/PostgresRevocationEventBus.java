@@ -0,0 +1,146 @@
+package com.paulcera.bentabox.security.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.security.model.RevocationEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propagates events with Postgres {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * Events are published on the caller's connection, so an event raised inside a transaction is only delivered if that
+ * transaction commits. Notifications are received on a dedicated connection opened outside the pool, which a daemon
+ * thread polls and reopens whenever it fails. A subscriber that throws is logged and skipped, so it neither stops the
+ * listener thread nor keeps the event from the other subscribers.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.revocation-bus.type", havingValue = "postgres",
+    matchIfMissing = true)
+public class PostgresRevocationEventBus implements RevocationEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresRevocationEventBus.class);
+
+    private static final String CHANNEL = "token_revocations";
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final List<Consumer<RevocationEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @Autowired
+    public PostgresRevocationEventBus(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+        @Value("${spring.datasource.url}") String url,
+        @Value("${spring.datasource.username}") String username,
+        @Value("${spring.datasource.password}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = new Thread(this::listen, "revocation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    public void publish(RevocationEvent event) {
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL,
+                objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize revocation event", e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RevocationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Revocation listener lost its connection, reconnecting", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    void deliver(String payload) {
+        RevocationEvent event;
+        try {
+            event = objectMapper.readValue(payload, RevocationEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed revocation event: {}", payload, e);
+            return;
+        }
+
+        for (Consumer<RevocationEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                log.error("Revocation subscriber failed on event: {}", payload, e);
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
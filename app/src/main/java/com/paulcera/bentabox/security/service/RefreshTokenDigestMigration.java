@@ -0,0 +1,89 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.security.model.AppliedMigration;
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.repository.AppliedMigrationRepository;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rewrites refresh tokens that were stored as full JWT strings into their digest form.
+ * <p>
+ * Rows are converted in batches, one transaction per batch, when the application starts. A compact JWT is never
+ * {@value TokenDigest#LENGTH} characters long, so rows already holding a digest are skipped and nodes starting at the
+ * same time can both run it. Once a run finds nothing left to convert, an {@link AppliedMigration} row is recorded and
+ * later starts skip the table scan altogether.
+ */
+@Component
+public class RefreshTokenDigestMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenDigestMigration.class);
+
+    static final String NAME = "refresh-token-digest";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final AppliedMigrationRepository appliedMigrationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public RefreshTokenDigestMigration(RefreshTokenRepository refreshTokenRepository,
+        AppliedMigrationRepository appliedMigrationRepository, TransactionTemplate transactionTemplate,
+        @Value("${spring.application.security.refresh-token.digest-migration-batch-size:500}") int batchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.appliedMigrationRepository = appliedMigrationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (appliedMigrationRepository.existsById(NAME)) {
+            return;
+        }
+
+        int migrated = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> migrateBatch());
+            migrated += batch;
+        } while (batch == batchSize);
+
+        if (migrated > 0) {
+            log.info("Replaced {} stored refresh tokens with their digest", migrated);
+        }
+        markApplied();
+    }
+
+    private void markApplied() {
+        try {
+            appliedMigrationRepository.save(new AppliedMigration(NAME, Instant.now()));
+        } catch (DataIntegrityViolationException e) {
+            // another node finished the migration at the same time
+        }
+    }
+
+    private int migrateBatch() {
+        List<RefreshToken> refreshTokens = refreshTokenRepository.findWithoutDigest(TokenDigest.LENGTH,
+            PageRequest.ofSize(batchSize));
+
+        for (RefreshToken refreshToken : refreshTokens) {
+            refreshToken.setTokenDigest(TokenDigest.of(refreshToken.getTokenDigest()));
+        }
+        refreshTokenRepository.saveAll(refreshTokens);
+
+        return refreshTokens.size();
+    }
+}
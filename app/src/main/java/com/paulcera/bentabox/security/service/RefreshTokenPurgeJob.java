@@ -0,0 +1,107 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes expired refresh tokens, and revoked ones past their retention, in bounded batches.
+ * <p>
+ * Each batch is its own short transaction followed by a pause, so the purge never holds long locks or saturates the
+ * database while logins are running. Every node runs the job; a batch skips rows another node has locked, so
+ * overlapping runs divide the rows between them. Rows purged in total and by the last run, and the run duration, are
+ * published as {@code refresh.tokens.*} meters.
+ * <p>
+ * Every rotation revokes a token, so revoked rows are kept for {@code revoked-retention} rather than until their own
+ * expiry, which would keep a year of rotations in the table. Past the retention, replaying a rotated token is still
+ * rejected, since no active row matches it, but it is no longer recognised as reuse and does not revoke its family.
+ * Setting the retention to the refresh token lifetime keeps every revoked row until it expires.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.refresh-token.purge.enabled", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenPurgeJob.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration revokedRetention;
+    private final Counter purgedRows;
+    private final Timer purgeDuration;
+    private final AtomicLong lastRunPurged = new AtomicLong();
+
+    @Autowired
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+        TransactionTemplate transactionTemplate,
+        @Value("${spring.application.security.refresh-token.purge.batch-size:1000}") int batchSize,
+        @Value("${spring.application.security.refresh-token.purge.batch-pause:100ms}") Duration batchPause,
+        @Value("${spring.application.security.refresh-token.purge.revoked-retention:30d}") Duration revokedRetention,
+        MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.revokedRetention = revokedRetention;
+        this.purgedRows = Counter.builder("refresh.tokens.purged")
+            .description("Refresh tokens deleted by the purge job")
+            .register(meterRegistry);
+        this.purgeDuration = Timer.builder("refresh.tokens.purge.duration")
+            .description("Time taken by one run of the purge job")
+            .register(meterRegistry);
+        Gauge.builder("refresh.tokens.purge.last", lastRunPurged, AtomicLong::get)
+            .description("Refresh tokens deleted by the latest run of the purge job")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${spring.application.security.refresh-token.purge.initial-delay:5m}",
+        fixedDelayString = "${spring.application.security.refresh-token.purge.interval:1h}")
+    public void purge() {
+        long purged = purgeDuration.record(this::purgeInBatches);
+        lastRunPurged.set(purged);
+
+        if (purged > 0) {
+            log.info("Purged {} expired or revoked refresh tokens", purged);
+        }
+    }
+
+    private long purgeInBatches() {
+        Instant now = Instant.now();
+        Instant revokedBefore = now.minus(revokedRetention);
+        long purged = 0;
+        int deleted;
+
+        do {
+            deleted = transactionTemplate.execute(
+                status -> refreshTokenRepository.deletePurgeableBatch(now, revokedBefore, batchSize));
+            purged += deleted;
+            purgedRows.increment(deleted);
+        } while (deleted == batchSize && pause());
+
+        return purged;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
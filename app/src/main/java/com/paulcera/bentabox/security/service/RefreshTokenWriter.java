@@ -0,0 +1,16 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.model.RefreshToken;
+
+/**
+ * Stores newly issued refresh tokens.
+ */
+public interface RefreshTokenWriter {
+
+    /**
+     * Returns once the token is stored: committed, or part of the caller's transaction when one is active.
+     *
+     * @throws org.springframework.dao.DataAccessException when the token could not be stored
+     */
+    void insert(RefreshToken refreshToken);
+}
@@ -0,0 +1,28 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves each token through the {@link RefreshTokenRepository}, one insert and commit per token.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.refresh-token.group-commit.enabled", havingValue = "false",
+    matchIfMissing = true)
+public class RepositoryRefreshTokenWriter implements RefreshTokenWriter {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    public RepositoryRefreshTokenWriter(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Override
+    public void insert(RefreshToken refreshToken) {
+        refreshTokenRepository.save(refreshToken);
+    }
+}
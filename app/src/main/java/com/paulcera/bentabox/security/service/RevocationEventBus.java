@@ -0,0 +1,25 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.model.RevocationEvent;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts revocations between the nodes of a deployment.
+ * <p>
+ * Delivery is best effort, and only nodes listening at the time receive an event. What a node that misses one
+ * recovers depends on the state:
+ * <ul>
+ *     <li>Watermarks are stored on the user and reloaded on startup, so a restart picks up missed log-outs
+ *     everywhere.</li>
+ *     <li>The {@link AccessTokenDenylist} lives only in memory. A node that misses a denial, including one that starts
+ *     after it was published, accepts the denied access tokens until they expire, at most one access token lifetime
+ *     later. Refresh tokens are not affected, since their revocation is checked against the database.</li>
+ *     <li>Cached principals and verified tokens age out with their caches and start empty on restart.</li>
+ * </ul>
+ */
+public interface RevocationEventBus {
+
+    void publish(RevocationEvent event);
+
+    void subscribe(Consumer<RevocationEvent> subscriber);
+}
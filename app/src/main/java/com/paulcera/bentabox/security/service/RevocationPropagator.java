@@ -0,0 +1,91 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.model.RevocationEvent;
+import com.paulcera.bentabox.security.model.RevocationEvent.Type;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for changes to the in-memory revocation state.
+ * <p>
+ * Each change is applied locally first, so it takes effect on this node at once, and then published on the
+ * {@link RevocationEventBus} for the other nodes. Events published by this node are ignored when they come back. The
+ * time between publishing and applying an event elsewhere is recorded as {@code revocation.events.lag}.
+ */
+@Component
+public class RevocationPropagator {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RevocationEventBus revocationEventBus;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final TokenWatermarkRegistry tokenWatermarkRegistry;
+    private final UserPrincipalCache userPrincipalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Timer propagationLag;
+
+    @Autowired
+    public RevocationPropagator(RevocationEventBus revocationEventBus, AccessTokenDenylist accessTokenDenylist,
+        TokenWatermarkRegistry tokenWatermarkRegistry, UserPrincipalCache userPrincipalCache,
+        VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        this.revocationEventBus = revocationEventBus;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.tokenWatermarkRegistry = tokenWatermarkRegistry;
+        this.userPrincipalCache = userPrincipalCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.propagationLag = Timer.builder("revocation.events.lag")
+            .description("Time between a node publishing a revocation and another node applying it")
+            .register(meterRegistry);
+        revocationEventBus.subscribe(this::onEvent);
+    }
+
+    public void denyToken(String id, Instant until) {
+        if (id == null) {
+            return;
+        }
+
+        publish(new RevocationEvent(Type.TOKEN_DENIED, id, until, nodeId, Instant.now()));
+    }
+
+    public void moveWatermark(String username, Instant tokensValidAfter) {
+        publish(new RevocationEvent(Type.WATERMARK_MOVED, username, tokensValidAfter, nodeId, Instant.now()));
+    }
+
+    public void principalChanged(String username) {
+        publish(new RevocationEvent(Type.PRINCIPAL_CHANGED, username, null, nodeId, Instant.now()));
+    }
+
+    private void publish(RevocationEvent event) {
+        apply(event);
+        revocationEventBus.publish(event);
+    }
+
+    void onEvent(RevocationEvent event) {
+        if (nodeId.equals(event.origin())) {
+            return;
+        }
+
+        apply(event);
+        propagationLag.record(Duration.between(event.publishedAt(), Instant.now()));
+    }
+
+    private void apply(RevocationEvent event) {
+        switch (event.type()) {
+            case TOKEN_DENIED -> {
+                accessTokenDenylist.deny(event.key(), event.until());
+                verifiedTokenCache.invalidateId(event.key());
+            }
+            case WATERMARK_MOVED -> {
+                tokenWatermarkRegistry.update(event.key(), event.until());
+                userPrincipalCache.invalidate(event.key());
+                verifiedTokenCache.invalidateSubject(event.key());
+            }
+            case PRINCIPAL_CHANGED -> userPrincipalCache.invalidate(event.key());
+        }
+    }
+}
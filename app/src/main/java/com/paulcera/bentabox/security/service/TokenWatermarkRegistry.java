@@ -0,0 +1,51 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.security.model.TokenWatermark;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory mirror of {@link com.paulcera.bentabox.security.model.WebUser#getTokensValidAfter()}.
+ * <p>
+ * Only users that have logged out everywhere at least once have an entry. Every token of such a user issued before
+ * the watermark is rejected, whatever its type and without any lookup in the token tables.
+ */
+@Component
+public class TokenWatermarkRegistry {
+
+    private final WebUserRepository webUserRepository;
+    private final Map<String, Instant> watermarks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenWatermarkRegistry(WebUserRepository webUserRepository) {
+        this.webUserRepository = webUserRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        for (TokenWatermark watermark : webUserRepository.findAllTokenWatermarks()) {
+            watermarks.put(watermark.username(), watermark.tokensValidAfter());
+        }
+    }
+
+    /**
+     * The {@code iat} claim only has second precision, so the watermark is compared at that precision too and a token
+     * issued in the same second is accepted. Otherwise a login right after logging out everywhere would be rejected.
+     */
+    public boolean isIssuedBeforeWatermark(TokenClaims claims) {
+        Instant watermark = watermarks.get(claims.subject());
+        return watermark != null
+            && (claims.issuedAt() == null || claims.issuedAt().isBefore(watermark.truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    public void update(String username, Instant tokensValidAfter) {
+        watermarks.merge(username, tokensValidAfter, (current, updated) -> updated.isAfter(current) ? updated : current);
+    }
+}
@@ -1,29 +1,44 @@
 package com.paulcera.bentabox.security.service;
 
+import com.paulcera.bentabox.security.jfr.UserLoadEvent;
 import com.paulcera.bentabox.security.model.UserPrincipal;
 import com.paulcera.bentabox.security.model.WebUser;
 import com.paulcera.bentabox.security.repository.WebUserRepository;
+import com.paulcera.bentabox.security.util.Outcome;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads users through the {@link UserPrincipalCache}. Cache misses emit a {@link UserLoadEvent}.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final WebUserRepository webUserRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Autowired
-    public UserDetailsServiceImpl(WebUserRepository webUserRepository) {
+    public UserDetailsServiceImpl(WebUserRepository webUserRepository, UserPrincipalCache userPrincipalCache) {
         this.webUserRepository = webUserRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) {
-        WebUser user = webUserRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("No user found with username: " + username));
+        return userPrincipalCache.get(username, this::loadFromRepository);
+    }
+
+    private UserPrincipal loadFromRepository(String username) {
+        UserLoadEvent event = new UserLoadEvent();
+        event.begin();
+        Optional<WebUser> user = webUserRepository.findByUsername(username);
+        event.commit(user.isPresent() ? Outcome.VALID : Outcome.REJECTED);
 
-        return new UserPrincipal(user);
+        return new UserPrincipal(user
+            .orElseThrow(() -> new UsernameNotFoundException("No user found with username: " + username)));
     }
 }
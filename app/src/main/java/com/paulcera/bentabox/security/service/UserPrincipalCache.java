@@ -0,0 +1,88 @@
+package com.paulcera.bentabox.security.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, time-limited cache of {@link UserPrincipal}s keyed by username.
+ * <p>
+ * Concurrent misses for the same username wait for a single load. Failed loads are not cached. Hit, miss and eviction
+ * counts are published as {@code cache.*} meters tagged with {@code cache=principals}.
+ * <p>
+ * The loader runs outside the cache's internal map locks: a miss publishes an incomplete future and the caller that
+ * published it runs the (blocking) database query, while other callers wait on the future. A loader run inside
+ * {@code ConcurrentHashMap.compute} would hold a monitor across JDBC I/O, which pins virtual threads.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final AsyncCache<String, UserPrincipal> cache;
+
+    @Autowired
+    public UserPrincipalCache(@Value("${spring.application.security.principal-cache.maximum-size:10000}") long maximumSize,
+        @Value("${spring.application.security.principal-cache.ttl:5m}") Duration ttl,
+        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "principals");
+    }
+
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        CompletableFuture<UserPrincipal> cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return join(cached);
+        }
+
+        CompletableFuture<UserPrincipal> loading = new CompletableFuture<>();
+        CompletableFuture<UserPrincipal> existing = cache.asMap().putIfAbsent(username, loading);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            UserPrincipal userPrincipal = loader.apply(username);
+            loading.complete(userPrincipal);
+            return userPrincipal;
+        } catch (RuntimeException ex) {
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private static UserPrincipal join(CompletableFuture<UserPrincipal> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.paulcera.bentabox.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.jfr.TokenVerifyEvent;
+import com.paulcera.bentabox.security.util.Outcome;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Claims of tokens that already passed signature verification, keyed by {@link TokenDigest} so the cache never holds
+ * a usable token.
+ * <p>
+ * Each entry expires at the {@code exp} of its token but is kept for at most {@code max-ttl}, one access token lifetime
+ * by default, so that a long-lived refresh token does not hold its entry for a year. Tokens without an {@code exp} are
+ * not cached. The cache is bounded by
+ * {@code maximum-weight}, an estimate of the heap its entries hold, and evicts with Caffeine's W-TinyLFU policy, so a
+ * burst of tokens that are only seen once cannot push out the ones terminals keep sending. Failed verifications are
+ * not cached. Hit, miss and eviction counts are published as {@code cache.*} meters tagged with
+ * {@code cache=verified-tokens}.
+ * <p>
+ * Only the signature check is cached. Denylist and watermark checks still run on every request, and the
+ * {@link RevocationPropagator} also drops the entries a revocation covers, so that revoked tokens do not occupy the
+ * budget. The key ring only changes on restart, which also empties the cache.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * Weight of an entry before its claim values: the cache node, the digest key, {@link TokenClaims}, its instants and
+     * the claims map. With {@link #CLAIM_BYTES} this puts an access token at about 1.6 KB, in line with the heap
+     * {@code VerifiedTokenCacheFootprint} in the benchmarks module measures, so the default budget holds about ten
+     * thousand tokens.
+     */
+    static final int ENTRY_BYTES = 1024;
+    static final int CLAIM_BYTES = 64;
+
+    private final boolean enabled;
+    private final long maxTtlNanos;
+    private final Cache<String, TokenClaims> cache;
+
+    @Autowired
+    public VerifiedTokenCache(
+        @Value("${spring.application.security.verified-token-cache.enabled:true}") boolean enabled,
+        @Value("${spring.application.security.verified-token-cache.maximum-weight:16MB}") DataSize maximumWeight,
+        @Value("${spring.application.security.verified-token-cache.max-ttl:1h}") Duration maxTtl,
+        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight.toBytes())
+            .weigher(VerifiedTokenCache::weigh)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+    }
+
+    /**
+     * Returns the cached claims of the token, or verifies it with {@code verifier} and caches the result.
+     * <p>
+     * The verifier runs outside the cache's locks, so concurrent misses for the same token may each verify it. That
+     * costs a second signature check at worst, whereas a verifier run inside the map's {@code compute} would block
+     * unrelated tokens hashed to the same bin for as long as an ES256 check takes.
+     *
+     * @throws RuntimeException whatever {@code verifier} throws for a token it rejects
+     */
+    public TokenClaims get(String token, Function<String, TokenClaims> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+
+        String digest = TokenDigest.of(token);
+        TokenClaims cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        TokenClaims claims = verifier.apply(token);
+        if (claims.expiration() != null) {
+            cache.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Returns the verified claims of the token, checking its signature with {@code tokenVerifier} on a miss. This is
+     * the one place bearer tokens are verified, so every actual signature check emits a {@link TokenVerifyEvent}.
+     *
+     * @throws JwtException             if the token is expired, malformed or signed with an unknown key
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public TokenClaims verify(String token, TokenVerifier tokenVerifier) {
+        return get(token, uncached -> verifySignature(uncached, tokenVerifier));
+    }
+
+    private static TokenClaims verifySignature(String token, TokenVerifier tokenVerifier) {
+        TokenVerifyEvent event = new TokenVerifyEvent();
+        event.begin();
+        try {
+            TokenClaims claims = TokenClaims.from(tokenVerifier.parse(token));
+            event.commit(Outcome.VALID);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            event.commit(Outcome.ofRejectedToken(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the tokens whose token or session id is {@code id}. Scans the whole cache, which is fine for the rate of
+     * revocations but not for the request path.
+     */
+    public void invalidateId(String id) {
+        removeIf(claims -> id.equals(claims.tokenId()) || id.equals(claims.sessionId()));
+    }
+
+    /**
+     * Drops every token issued to {@code subject}. Scans the whole cache like {@link #invalidateId(String)}.
+     */
+    public void invalidateSubject(String subject) {
+        removeIf(claims -> subject.equals(claims.subject()));
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Sum of the weights of the current entries, in estimated bytes.
+     */
+    public long weightedSize() {
+        return cache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0))
+            .orElse(0L);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Runs pending evictions now instead of on the next access.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private void removeIf(Predicate<TokenClaims> predicate) {
+        cache.asMap().values().removeIf(predicate);
+    }
+
+    /**
+     * Estimated retained heap of an entry in bytes: {@link #ENTRY_BYTES}, plus {@link #CLAIM_BYTES} and one byte per
+     * character for each claim value. Claim strings are Latin-1, so a character takes a byte.
+     */
+    static int weigh(String digest, TokenClaims claims) {
+        int weight = ENTRY_BYTES;
+        for (Object value : claims.claims().values()) {
+            weight += CLAIM_BYTES;
+            if (value instanceof Collection<?> values) {
+                for (Object element : values) {
+                    weight += CLAIM_BYTES + String.valueOf(element).length();
+                }
+            } else {
+                weight += String.valueOf(value).length();
+            }
+        }
+        return weight;
+    }
+
+    private final class UntilTokenExpiry implements Expiry<String, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(String digest, TokenClaims claims, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), claims.expiration()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, TokenClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.paulcera.bentabox.security.service;
+
+import com.paulcera.bentabox.security.dto.WebUserForm;
+import com.paulcera.bentabox.security.dto.WebUserView;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class WebUserService {
+
+    private final WebUserRepository webUserRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final RevocationPropagator revocationPropagator;
+
+    @Autowired
+    public WebUserService(WebUserRepository webUserRepository, PasswordEncoder passwordEncoder,
+        RevocationPropagator revocationPropagator) {
+        this.webUserRepository = webUserRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.revocationPropagator = revocationPropagator;
+    }
+
+    public WebUserView create(WebUserForm form) {
+        WebUser newWebUser = webUserRepository.save(WebUser.createFromForm(form, passwordEncoder));
+        revocationPropagator.principalChanged(newWebUser.getUsername());
+        return new WebUserView(newWebUser);
+    }
+
+    /**
+     * Re-hashes the password with the current encoder parameters when the stored hash was made with an older algorithm
+     * or a lower work factor. Must only be called with a password that has just been verified against the stored hash.
+     */
+    @Transactional
+    public void upgradePasswordEncoding(WebUser webUser, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(webUser.getPassword())) {
+            return;
+        }
+
+        webUserRepository.updatePassword(webUser.getUsername(), passwordEncoder.encode(rawPassword));
+        revocationPropagator.principalChanged(webUser.getUsername());
+    }
+
+    /**
+     * Invalidates every access and refresh token issued to the user so far with a single write.
+     */
+    @Transactional
+    public void revokeAllTokens(String username) {
+        Instant tokensValidAfter = Instant.now();
+
+        webUserRepository.updateTokensValidAfter(username, tokensValidAfter);
+        revocationPropagator.moveWatermark(username, tokensValidAfter);
+    }
+
+}
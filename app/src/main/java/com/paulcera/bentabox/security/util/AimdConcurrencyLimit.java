@@ -0,0 +1,93 @@
+package com.paulcera.bentabox.security.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to observed latency with additive increase / multiplicative decrease.
+ * <p>
+ * A request is admitted only while fewer than {@link #getLimit()} requests are in flight. Every completed request is
+ * a sample: if it took longer than the latency threshold or failed, the limit is multiplied by the backoff ratio;
+ * otherwise, if the limit was actually being used (at least half of it in flight), it grows by one. The limit always
+ * stays between the configured minimum and maximum. All state is held in atomics, so admission is lock-free.
+ * <p>
+ * A stall slows down every request in flight at once, and each of them reports it. So the limit backs off at most
+ * once per latency threshold: the requests caught in one stall count as a single signal rather than shrinking the
+ * limit once each.
+ */
+public final class AimdConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong nextBackoffAt;
+
+    public AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+        double backoffRatio, LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = new AtomicInteger(initialLimit);
+        this.nextBackoffAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Claims a slot if the limit allows. Every successful call must be paired with one {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's latency, or its failure, back into the limit.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            backOff();
+        } else if (inFlightBefore * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    private void backOff() {
+        long now = nanoClock.getAsLong();
+        long allowedAt = nextBackoffAt.get();
+        if (now - allowedAt >= 0 && nextBackoffAt.compareAndSet(allowedAt, now + latencyThresholdNanos)) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
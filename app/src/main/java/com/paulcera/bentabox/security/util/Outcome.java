@@ -0,0 +1,33 @@
+package com.paulcera.bentabox.security.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+
+/**
+ * Result of one stage of the authentication path, used as the {@code outcome} tag of its timer.
+ */
+public enum Outcome {
+
+    VALID("valid"),
+    EXPIRED("expired"),
+    MALFORMED("malformed"),
+    REVOKED("revoked"),
+    REJECTED("rejected");
+
+    private final String tag;
+
+    Outcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Outcome of a token that failed to verify: expired tokens are told apart from everything else the parser refuses,
+     * such as bad signatures, unknown keys and garbage.
+     */
+    public static Outcome ofRejectedToken(RuntimeException exception) {
+        return exception instanceof ExpiredJwtException ? EXPIRED : MALFORMED;
+    }
+}
@@ -0,0 +1,64 @@
+package com.paulcera.bentabox.security.util;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public final class PasswordHashCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    /**
+     * Hashes run before timing anything, so that the JIT has compiled the hashing loop.
+     */
+    static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Timed hashes per cost. Their median is compared with the target, so that one GC pause or a noisy neighbour does
+     * not pick the cost.
+     */
+    static final int SAMPLES = 5;
+
+    private PasswordHashCalibrator() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Returns the highest cost between {@code minCost} and {@code maxCost} whose encoder still hashes within
+     * {@code targetLatency} on this machine, going by the median of {@link #SAMPLES} hashes after a warm-up. Never
+     * returns less than {@code minCost}, so slow hardware keeps the configured floor rather than being weakened further.
+     */
+    public static int calibrate(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+        Duration targetLatency) {
+        return calibrate(encoderForCost, minCost, maxCost, targetLatency, System::nanoTime);
+    }
+
+    static int calibrate(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost, Duration targetLatency,
+        LongSupplier nanoClock) {
+        PasswordEncoder warmup = encoderForCost.apply(minCost);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            warmup.encode(SAMPLE_PASSWORD);
+        }
+
+        int cost = minCost;
+        while (cost < maxCost
+            && medianTimeToEncode(encoderForCost.apply(cost + 1), nanoClock).compareTo(targetLatency) <= 0) {
+            cost++;
+        }
+        return cost;
+    }
+
+    static Duration medianTimeToEncode(PasswordEncoder encoder, LongSupplier nanoClock) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = nanoClock.getAsLong();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = nanoClock.getAsLong() - start;
+        }
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.paulcera.bentabox.security.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size, lock-free token bucket keyed by string.
+ * <p>
+ * Keys are hashed onto a fixed number of stripes, so memory stays at eight bytes per stripe however many distinct keys
+ * are seen. Each stripe holds the theoretical arrival time of the next token (GCRA), which lets a single
+ * compare-and-set both check and consume a token. Keys that share a stripe share its budget; this only ever makes the
+ * limit stricter, and enough stripes keep it rare.
+ */
+public final class StripedTokenBucket {
+
+    private final AtomicLongArray theoreticalArrivals;
+    private final int mask;
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    /**
+     * @param stripes      number of independent buckets, rounded up to a power of two
+     * @param capacity     tokens a key may spend at once after being idle
+     * @param refillPeriod time it takes to earn back one token
+     * @param nanoClock    monotonic clock in nanoseconds, normally {@code System::nanoTime}
+     */
+    public StripedTokenBucket(int stripes, int capacity, Duration refillPeriod, LongSupplier nanoClock) {
+        if (stripes < 1 || capacity < 1 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Stripes, capacity and refill period must be positive");
+        }
+
+        int size = Integer.highestOneBit(stripes);
+        size = size == stripes ? size : size << 1;
+        this.theoreticalArrivals = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.emissionInterval = refillPeriod.toNanos();
+        this.burstTolerance = Math.multiplyExact(emissionInterval, (long) capacity);
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one token from the key's bucket. Returns {@code 0} when a token was available, otherwise the number of
+     * nanoseconds until the next one is, in which case nothing is consumed.
+     */
+    public long tryAcquire(String key) {
+        int stripe = stripeOf(key);
+        while (true) {
+            long now = nanoClock.getAsLong() - origin;
+            long arrival = theoreticalArrivals.get(stripe);
+            long next = Math.max(arrival, now) + emissionInterval;
+            long wait = next - now - burstTolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivals.compareAndSet(stripe, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int stripes() {
+        return theoreticalArrivals.length();
+    }
+
+    private int stripeOf(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.paulcera.bentabox.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.loadtest.LoadProfile.Endpoint;
+import com.paulcera.bentabox.security.dto.FullNameDto;
+import com.paulcera.bentabox.security.dto.LoginRequest;
+import com.paulcera.bentabox.security.dto.WebUserForm;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+/**
+ * Open-model load test of the whole token lifecycle: login, refresh, logout and authenticated calls.
+ * <p>
+ * The application runs on H2 with the {@code test} profile, like the integration tests, and {@code loadtest.users}
+ * users are seeded with the password hash of {@code authentication-controller-dataset.sql}. Requests arrive as a
+ * Poisson process at {@code loadtest.rate} per second whether or not earlier ones have finished, and each arrival picks
+ * an endpoint from {@code loadtest.mix}. Refresh, logout and authenticated calls need a logged in session. The run
+ * starts with {@code loadtest.sessions} of them, and when none is free an arrival logs in instead. The authenticated
+ * call is {@code POST /users/add}, the only protected business endpoint so far.
+ * <p>
+ * Every endpoint gets an HDR latency histogram, printed as a summary and written to
+ * {@code target/loadtest/<endpoint>.hgrm}, and the run fails when an endpoint misses its p99 or error rate objective.
+ * See {@link LoadProfile} for the settings.
+ * <pre>
+ * mvn -pl app -am -Pload-test test -Dtest=AuthLifecycleLoadTest -Dloadtest.rate=200 -Dloadtest.slo.login.p99=PT2S
+ * </pre>
+ * The login rate limiter is switched off since every request comes from the same address; the concurrency limiter
+ * stays on, so shed requests count against the error rate as they would in production.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.application.security.login-rate-limit.enabled=false",
+    "server.tomcat.max-connections=20000"
+})
+@ActiveProfiles("test")
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class AuthLifecycleLoadTest {
+
+    private static final String PASSWORD = "admin";
+    private static final String PASSWORD_HASH = "$2a$10$PTXcYdrD4a1qW5MJ8vY67uOkHe.pIpKW0i2xDx.qripSN1bzn1Tfa";
+    private static final Path REPORT_DIRECTORY = Path.of("target", "loadtest");
+    private static final int INITIAL_LOGIN_CONCURRENCY = 2;
+
+    private final LoadProfile profile = LoadProfile.fromSystemProperties();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(30))
+        .build();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final Queue<Session> sessions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong createdUsers = new AtomicLong();
+
+    private long measurementStart;
+    private long measurementEnd;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedUsers() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        List<Object[]> users = IntStream.range(0, profile.users())
+            .mapToObj(i -> new Object[]{"Load", "Test " + i, username(i), PASSWORD_HASH})
+            .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO web_user (first_name, last_name, username, password) VALUES (?, ?, ?, ?)",
+            users);
+    }
+
+    @Test
+    void authLifecycle_openModelArrivals_meetsServiceLevelObjectives() throws Exception {
+        loginInitialSessions();
+
+        long start = System.nanoTime();
+        measurementStart = start + profile.warmup().toNanos();
+        measurementEnd = measurementStart + profile.duration().toNanos();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.rate();
+
+        long arrival = start;
+        while (arrival < measurementEnd) {
+            arrival += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+            long delay;
+            while ((delay = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            dispatch(profile.pick(ThreadLocalRandom.current().nextDouble()), arrival);
+        }
+        awaitInFlight();
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            EndpointStats endpointStats = entry.getValue();
+            System.out.printf("%-13s %s%n", endpoint.key(), endpointStats.summary(profile.duration()));
+            endpointStats.writeDistribution(REPORT_DIRECTORY.resolve(endpoint.key() + ".hgrm"));
+            violations.addAll(sloViolations(endpoint, endpointStats));
+        }
+
+        assertTrue(stats.values().stream().anyMatch(endpointStats -> endpointStats.count() > 0),
+            "No request was recorded during the measured window");
+        assertTrue(violations.isEmpty(), String.join("; ", violations));
+    }
+
+    /**
+     * Logs in {@code loadtest.sessions} terminals before the arrivals start, so the run begins from a steady state
+     * instead of every arrival falling back to a login.
+     */
+    private void loginInitialSessions() throws InterruptedException {
+        Semaphore permits = new Semaphore(INITIAL_LOGIN_CONCURRENCY);
+        List<CompletableFuture<Void>> logins = new ArrayList<>();
+        for (int i = 0; i < profile.sessions(); i++) {
+            permits.acquire();
+            logins.add(httpClient.sendAsync(request(Endpoint.LOGIN, null), HttpResponse.BodyHandlers.ofString())
+                .thenAccept(response -> onResponse(Endpoint.LOGIN, null,
+                    response.statusCode() == 200 ? response.body() : null))
+                .whenComplete((ignored, ex) -> permits.release()));
+        }
+        CompletableFuture.allOf(logins.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void dispatch(Endpoint endpoint, long scheduled) {
+        Session session = endpoint == Endpoint.LOGIN ? null : sessions.poll();
+        if (session == null) {
+            endpoint = Endpoint.LOGIN;
+        }
+
+        if (inFlight.incrementAndGet() > profile.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (session != null) {
+                sessions.offer(session);
+            }
+            record(endpoint, scheduled, -1, false);
+            return;
+        }
+
+        Endpoint dispatched = endpoint;
+        httpClient.sendAsync(request(endpoint, session), HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, ex) -> {
+                int status = ex == null ? response.statusCode() : -1;
+                boolean successful = status >= 200 && status < 300;
+                record(dispatched, scheduled, status, successful);
+                onResponse(dispatched, session, successful ? response.body() : null);
+                inFlight.decrementAndGet();
+            });
+    }
+
+    private HttpRequest request(Endpoint endpoint, Session session) {
+        return switch (endpoint) {
+            case LOGIN -> post("/api/auth/login", null, new LoginRequest(
+                username(ThreadLocalRandom.current().nextInt(profile.users())), PASSWORD));
+            case REFRESH -> post("/api/auth/refresh", session.refreshToken(), null);
+            case LOGOUT -> post("/api/auth/logout", session.refreshToken(), null);
+            case AUTHENTICATED -> post("/users/add", session.accessToken(), new WebUserForm(
+                "created-" + createdUsers.incrementAndGet(), PASSWORD, new FullNameDto("Load", "Test")));
+        };
+    }
+
+    /**
+     * Returns the session to the pool unless the call ended it. A refresh hands back the rotated tokens.
+     */
+    private void onResponse(Endpoint endpoint, Session session, String successBody) {
+        switch (endpoint) {
+            case LOGIN, REFRESH -> {
+                if (successBody != null) {
+                    sessions.offer(sessionOf(successBody));
+                }
+            }
+            case AUTHENTICATED -> {
+                if (successBody != null) {
+                    sessions.offer(session);
+                }
+            }
+            case LOGOUT -> {
+            }
+        }
+    }
+
+    private void record(Endpoint endpoint, long scheduled, int status, boolean successful) {
+        if (scheduled >= measurementStart && scheduled < measurementEnd) {
+            stats.get(endpoint).record(System.nanoTime() - scheduled, status, successful);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private List<String> sloViolations(Endpoint endpoint, EndpointStats endpointStats) {
+        List<String> violations = new ArrayList<>();
+        if (endpointStats.count() == 0) {
+            return violations;
+        }
+
+        Duration objective = profile.p99Objectives().get(endpoint);
+        if (endpointStats.p99().compareTo(objective) > 0) {
+            violations.add(endpoint.key() + " p99 " + endpointStats.p99().toMillis() + "ms exceeds "
+                + objective.toMillis() + "ms");
+        }
+        if (endpointStats.errorRate() > profile.maxErrorRate()) {
+            violations.add(String.format("%s error rate %.2f%% exceeds %.2f%%", endpoint.key(),
+                endpointStats.errorRate() * 100, profile.maxErrorRate() * 100));
+        }
+        return violations;
+    }
+
+    private HttpRequest post(String path, String bearerToken, Object body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .timeout(Duration.ofMinutes(1))
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(toJson(body)));
+        if (bearerToken != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        }
+        return builder.build();
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body == null ? "" : objectMapper.writeValueAsString(body);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Session sessionOf(String responseBody) {
+        try {
+            JsonNode payload = objectMapper.readTree(responseBody).path("payload");
+            return new Session(payload.path("access_token").asText(), payload.path("refresh_token").asText());
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unexpected response: " + responseBody, ex);
+        }
+    }
+
+    private static String username(int index) {
+        return "loadtest-" + index;
+    }
+
+    private record Session(String accessToken, String refreshToken) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.paulcera.bentabox.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histogram and response counts of one endpoint. Latencies are recorded in microseconds, from the time a
+ * request was scheduled to arrive, so a stalled server shows up as latency instead of as fewer requests.
+ */
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * @param status the HTTP status, or {@code -1} when there was no response
+     */
+    void record(long latencyNanos, int status, boolean successful) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    double errorRate() {
+        return count() == 0 ? 0 : (double) errors.sum() / count();
+    }
+
+    Duration p99() {
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencies.getValueAtPercentile(99.0)));
+    }
+
+    String summary(Duration window) {
+        return String.format("count=%d throughput=%.1f/s errors=%.2f%% p50=%.1fms p90=%.1fms p99=%.1fms "
+                + "p99.9=%.1fms max=%.1fms statuses=%s", count(), count() / (window.toMillis() / 1000.0),
+            errorRate() * 100, millisAt(50.0), millisAt(90.0), millisAt(99.0), millisAt(99.9),
+            latencies.getMaxValue() / MICROS_PER_MILLI, statuses);
+    }
+
+    /**
+     * Writes the percentile distribution in the {@code .hgrm} format, in milliseconds, for plotting or comparing runs.
+     */
+    void writeDistribution(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private double millisAt(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,172 @@
+package com.paulcera.bentabox.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.security.dto.LoginRequestMother;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+/**
+ * Closed-model load test of the refresh path, used to compare platform and virtual request threads.
+ * <p>
+ * Each terminal logs in once and then refreshes its token back to back, which runs the JWT filter, the principal
+ * lookup and the refresh token queries for every request. Run it once per mode with the same settings:
+ * <pre>
+ * mvn -pl app -am -Pload-test test
+ * mvn -pl app -am -Pjava21,load-test test -Dspring.threads.virtual.enabled=true
+ * </pre>
+ * {@code loadtest.terminals}, {@code loadtest.warmup} and {@code loadtest.duration} change the shape of the run. The
+ * login rate limiter and the concurrency limiter are switched off so they do not mask the thread model.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.application.security.login-rate-limit.enabled=false",
+    "spring.application.security.concurrency-limit.enabled=false",
+    "server.tomcat.max-connections=20000"
+})
+@ActiveProfiles("test")
+@Sql(scripts = "/authentication-controller-dataset.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class ExecutionModeLoadTest {
+
+    private static final int LOGIN_CONCURRENCY = 32;
+
+    private final int terminals = Integer.getInteger("loadtest.terminals", 5000);
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(30))
+        .build();
+    private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final AtomicBoolean recording = new AtomicBoolean();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void refresh_manyConcurrentTerminals_reportsThroughputAndP99() throws Exception {
+        List<String> refreshTokens = loginAll();
+
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        List<CompletableFuture<Void>> running = refreshTokens.stream()
+            .map(token -> refreshUntil(token, end))
+            .toList();
+
+        Thread.sleep(warmup.toMillis());
+        recording.set(true);
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        recording.set(false);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("mode=%s terminals=%d requests=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms "
+                + "statuses=%s%n", mode(), terminals, sorted.length, sorted.length / seconds(duration),
+            millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)), millis(percentile(sorted, 1.0)),
+            statuses);
+        assertTrue(sorted.length > 0, "No refresh completed during the measured window");
+    }
+
+    private List<String> loginAll() throws Exception {
+        String body = objectMapper.writeValueAsString(LoginRequestMother.admin());
+        Semaphore permits = new Semaphore(LOGIN_CONCURRENCY);
+        List<CompletableFuture<String>> logins = new ArrayList<>();
+        for (int i = 0; i < terminals; i++) {
+            permits.acquire();
+            logins.add(httpClient.sendAsync(post("/api/auth/login", null, body), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> refreshTokenOf(response.body()))
+                .whenComplete((token, ex) -> permits.release()));
+        }
+        return logins.stream().map(CompletableFuture::join).toList();
+    }
+
+    private CompletableFuture<Void> refreshUntil(String refreshToken, long end) {
+        if (System.nanoTime() >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.nanoTime();
+        return httpClient.sendAsync(post("/api/auth/refresh", refreshToken, ""), HttpResponse.BodyHandlers.ofString())
+            .handle((response, ex) -> {
+                int status = ex == null ? response.statusCode() : -1;
+                if (recording.get()) {
+                    latencies.add(System.nanoTime() - start);
+                    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                }
+                return status == 200 ? refreshTokenOf(response.body()) : refreshToken;
+            })
+            .thenCompose(nextToken -> refreshUntil(nextToken, end));
+    }
+
+    private HttpRequest post(String path, String bearerToken, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .timeout(Duration.ofMinutes(1))
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (bearerToken != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        }
+        return builder.build();
+    }
+
+    private String refreshTokenOf(String responseBody) {
+        try {
+            return objectMapper.readTree(responseBody).path("payload").path("refresh_token").asText();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unexpected response: " + responseBody, ex);
+        }
+    }
+
+    private String mode() {
+        boolean virtual = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+            && Runtime.version().feature() >= 21;
+        return virtual ? "virtual" : "platform";
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1_000_000_000.0;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.paulcera.bentabox.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Shape of an {@link AuthLifecycleLoadTest} run, read from system properties so one build can be pointed at different
+ * loads:
+ * <ul>
+ *     <li>{@code loadtest.rate}: mean arrivals per second, default 100;</li>
+ *     <li>{@code loadtest.warmup} and {@code loadtest.duration}: ISO-8601 durations, default 10s and 30s;</li>
+ *     <li>{@code loadtest.users}: number of seeded users, default 1000;</li>
+ *     <li>{@code loadtest.sessions}: sessions logged in before the arrivals start, default 100;</li>
+ *     <li>{@code loadtest.mix}: relative weights such as {@code login:10,refresh:20,logout:5,authenticated:65};</li>
+ *     <li>{@code loadtest.max-in-flight}: arrivals beyond this many outstanding requests are dropped and counted as
+ *     errors, default 2000;</li>
+ *     <li>{@code loadtest.slo.p99} and {@code loadtest.slo.<endpoint>.p99}: p99 latency objective, default 1s for every
+ *     endpoint;</li>
+ *     <li>{@code loadtest.slo.error-rate}: highest tolerated share of failed requests per endpoint, default 0.01.</li>
+ * </ul>
+ */
+record LoadProfile(double rate, Duration warmup, Duration duration, int users, int sessions,
+                   Map<Endpoint, Integer> mix, int maxInFlight, Map<Endpoint, Duration> p99Objectives,
+                   double maxErrorRate) {
+
+    private static final String DEFAULT_MIX = "login:10,refresh:20,logout:5,authenticated:65";
+
+    static LoadProfile fromSystemProperties() {
+        Duration defaultP99 = Duration.parse(System.getProperty("loadtest.slo.p99", "PT1S"));
+        Map<Endpoint, Duration> p99Objectives = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            String property = System.getProperty("loadtest.slo." + endpoint.key() + ".p99");
+            p99Objectives.put(endpoint, property != null ? Duration.parse(property) : defaultP99);
+        }
+
+        return new LoadProfile(
+            Double.parseDouble(System.getProperty("loadtest.rate", "100")),
+            Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+            Duration.parse(System.getProperty("loadtest.duration", "PT30S")),
+            Integer.getInteger("loadtest.users", 1000),
+            Integer.getInteger("loadtest.sessions", 100),
+            parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+            Integer.getInteger("loadtest.max-in-flight", 2000),
+            p99Objectives,
+            Double.parseDouble(System.getProperty("loadtest.slo.error-rate", "0.01")));
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split(":");
+            weights.put(Endpoint.fromKey(keyAndWeight[0].trim()), Integer.parseInt(keyAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Picks an endpoint according to the mix, given a uniform random number in {@code [0, 1)}.
+     */
+    Endpoint pick(double random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double target = random * total;
+        for (Map.Entry<Endpoint, Integer> weight : mix.entrySet()) {
+            target -= weight.getValue();
+            if (target < 0) {
+                return weight.getKey();
+            }
+        }
+        return Endpoint.LOGIN;
+    }
+
+    enum Endpoint {
+        LOGIN("login"),
+        REFRESH("refresh"),
+        LOGOUT("logout"),
+        AUTHENTICATED("authenticated");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Endpoint fromKey(String key) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.key.equals(key)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + key);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.paulcera.bentabox.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.security.dto.LoginRequest;
+import com.paulcera.bentabox.security.service.LoginExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+/**
+ * Open-model login load test, used to compare the bounded {@link LoginExecutor} pool with running every login on its
+ * own virtual thread.
+ * <p>
+ * Logins arrive at {@code loadtest.rate} per second for random users out of {@code loadtest.users}, and at most
+ * {@code loadtest.max-in-flight} of them are outstanding at once; see {@link LoadProfile} for the settings. With
+ * {@code loadtest.login-mode=virtual} the pool is swapped for an unbounded virtual-thread executor, which needs Java
+ * 21. Run it once per mode with the same settings, for instance at 5000 concurrent logins:
+ * <pre>
+ * mvn -pl app -am -Pload-test test -Dtest=LoginExecutionModeLoadTest -Dloadtest.rate=5000 \
+ *     -Dloadtest.max-in-flight=5000
+ * mvn -pl app -am -Pjava21,load-test test -Dtest=LoginExecutionModeLoadTest -Dloadtest.rate=5000 \
+ *     -Dloadtest.max-in-flight=5000 -Dloadtest.login-mode=virtual
+ * </pre>
+ * The summary prints latency percentiles, throughput and the status counts, where 503 is a login the bounded pool shed,
+ * and the distribution is written to {@code target/loadtest/login-<mode>.hgrm}. The login rate limiter and the
+ * concurrency limiter are switched off so only the login executor decides what gets through.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.application.security.login-rate-limit.enabled=false",
+    "spring.application.security.concurrency-limit.enabled=false",
+    "server.tomcat.max-connections=20000"
+})
+@ActiveProfiles("test")
+@Import(LoginExecutionModeLoadTest.VirtualThreadLoginConfiguration.class)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class LoginExecutionModeLoadTest {
+
+    private static final String PASSWORD = "admin";
+    private static final String PASSWORD_HASH = "$2a$10$PTXcYdrD4a1qW5MJ8vY67uOkHe.pIpKW0i2xDx.qripSN1bzn1Tfa";
+    private static final Path REPORT_DIRECTORY = Path.of("target", "loadtest");
+
+    private final LoadProfile profile = LoadProfile.fromSystemProperties();
+    private final String mode = System.getProperty("loadtest.login-mode", "bounded");
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(30))
+        .build();
+    private final EndpointStats stats = new EndpointStats();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private long measurementStart;
+    private long measurementEnd;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedUsers() {
+        List<Object[]> users = IntStream.range(0, profile.users())
+            .mapToObj(i -> new Object[]{"Load", "Test " + i, username(i), PASSWORD_HASH})
+            .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO web_user (first_name, last_name, username, password) VALUES (?, ?, ?, ?)",
+            users);
+    }
+
+    @Test
+    void login_openModelArrivals_reportsLatencyAndShedLogins() throws Exception {
+        long start = System.nanoTime();
+        measurementStart = start + profile.warmup().toNanos();
+        measurementEnd = measurementStart + profile.duration().toNanos();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.rate();
+
+        long arrival = start;
+        while (arrival < measurementEnd) {
+            arrival += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+            long delay;
+            while ((delay = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            dispatch(arrival);
+        }
+        awaitInFlight();
+
+        System.out.printf("mode=%s rate=%.0f/s max-in-flight=%d peak-in-flight=%d%n", mode, profile.rate(),
+            profile.maxInFlight(), peakInFlight.get());
+        System.out.printf("%-13s %s%n", "login", stats.summary(profile.duration()));
+        stats.writeDistribution(REPORT_DIRECTORY.resolve("login-" + mode + ".hgrm"));
+        assertTrue(stats.count() > 0, "No login was recorded during the measured window");
+    }
+
+    private void dispatch(long scheduled) {
+        int outstanding = inFlight.incrementAndGet();
+        if (outstanding > profile.maxInFlight()) {
+            inFlight.decrementAndGet();
+            record(scheduled, -1);
+            return;
+        }
+        peakInFlight.accumulateAndGet(outstanding, Math::max);
+
+        LoginRequest loginRequest = new LoginRequest(username(ThreadLocalRandom.current().nextInt(profile.users())),
+            PASSWORD);
+        httpClient.sendAsync(post(loginRequest), HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, ex) -> {
+                record(scheduled, ex == null ? response.statusCode() : -1);
+                inFlight.decrementAndGet();
+            });
+    }
+
+    private void record(long scheduled, int status) {
+        if (scheduled >= measurementStart && scheduled < measurementEnd) {
+            stats.record(System.nanoTime() - scheduled, status, status == 200);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private HttpRequest post(LoginRequest loginRequest) {
+        try {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .timeout(Duration.ofMinutes(1))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(loginRequest)))
+                .build();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String username(int index) {
+        return "loadtest-" + index;
+    }
+
+    @TestConfiguration
+    @ConditionalOnProperty(name = "loadtest.login-mode", havingValue = "virtual")
+    static class VirtualThreadLoginConfiguration {
+
+        @Bean
+        @Primary
+        LoginExecutor virtualThreadLoginExecutor(MeterRegistry meterRegistry) {
+            return new VirtualThreadLoginExecutor(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs every login on a new virtual thread, with no bound and no queue. Looked up reflectively so the tests still
+     * compile on Java 17.
+     */
+    private static final class VirtualThreadLoginExecutor extends LoginExecutor {
+
+        private final Executor virtualThreads;
+
+        VirtualThreadLoginExecutor(MeterRegistry meterRegistry) {
+            super(1, 1, Duration.ofSeconds(1), meterRegistry);
+            try {
+                this.virtualThreads = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("loadtest.login-mode=virtual needs Java 21, run with -Pjava21", ex);
+            }
+        }
+
+        @Override
+        public <T> CompletableFuture<T> submit(Supplier<T> task) {
+            return CompletableFuture.supplyAsync(task, virtualThreads);
+        }
+    }
+
+}
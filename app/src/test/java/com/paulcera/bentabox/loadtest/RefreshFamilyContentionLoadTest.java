@@ -0,0 +1,144 @@
+package com.paulcera.bentabox.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.security.dto.LoginRequestMother;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+/**
+ * Load test of refresh token rotation when many terminals refresh the same family at once.
+ * <p>
+ * The run proceeds in rounds. In each round {@code loadtest.contenders} requests refresh the current token of one
+ * family at the same time, and the conditional revoke must let exactly one of them through; the others are rejected
+ * within the reuse grace period. The winner's token starts the next round. Rounds that do not have exactly one winner
+ * fail the run, and the summary reports rotations per second next to the latency of every contending request:
+ * <pre>
+ * mvn -pl app -am -Pload-test test -Dtest=RefreshFamilyContentionLoadTest -Dloadtest.contenders=64
+ * </pre>
+ * {@code loadtest.warmup} and {@code loadtest.duration} change the length of the run. The concurrency limiter is
+ * switched off so shed requests do not count as lost races.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.application.security.login-rate-limit.enabled=false",
+    "spring.application.security.concurrency-limit.enabled=false"
+})
+@ActiveProfiles("test")
+@Sql(scripts = "/authentication-controller-dataset.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class RefreshFamilyContentionLoadTest {
+
+    private static final Path REPORT_FILE = Path.of("target", "loadtest", "refresh-contention.hgrm");
+
+    private final int contenders = Integer.getInteger("loadtest.contenders", 32);
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(30))
+        .build();
+    private final EndpointStats stats = new EndpointStats();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void refresh_manyContendersOnOneFamily_exactlyOneWinsEveryRound() throws Exception {
+        String refreshToken = login();
+
+        long measurementStart = System.nanoTime() + warmup.toNanos();
+        long measurementEnd = measurementStart + duration.toNanos();
+        long rotations = 0;
+        long roundsWithoutSingleWinner = 0;
+        long now;
+        while ((now = System.nanoTime()) < measurementEnd) {
+            List<HttpResponse<String>> responses = refreshConcurrently(refreshToken, now >= measurementStart);
+            List<HttpResponse<String>> winners = responses.stream()
+                .filter(response -> response.statusCode() == 200)
+                .toList();
+            if (winners.size() != 1) {
+                roundsWithoutSingleWinner++;
+            }
+            if (winners.isEmpty()) {
+                break;
+            }
+            if (now >= measurementStart) {
+                rotations++;
+            }
+            refreshToken = refreshTokenOf(winners.get(0).body());
+        }
+
+        System.out.printf("contenders=%d rotations=%d rotations/s=%.1f%n", contenders, rotations,
+            rotations / (duration.toMillis() / 1000.0));
+        System.out.printf("%-13s %s%n", "refresh", stats.summary(duration));
+        stats.writeDistribution(REPORT_FILE);
+        assertEquals(0, roundsWithoutSingleWinner, "Rounds that did not have exactly one winner");
+        assertTrue(rotations > 0, "No rotation completed during the measured window");
+    }
+
+    private String login() throws Exception {
+        HttpResponse<String> response = httpClient.send(
+            post("/api/auth/login", null, objectMapper.writeValueAsString(LoginRequestMother.admin())),
+            HttpResponse.BodyHandlers.ofString());
+        return refreshTokenOf(response.body());
+    }
+
+    private List<HttpResponse<String>> refreshConcurrently(String refreshToken, boolean recording) {
+        List<CompletableFuture<HttpResponse<String>>> refreshes = IntStream.range(0, contenders)
+            .mapToObj(i -> {
+                long start = System.nanoTime();
+                return httpClient.sendAsync(post("/api/auth/refresh", refreshToken, ""),
+                        HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, ex) -> {
+                        if (recording) {
+                            int status = ex == null ? response.statusCode() : -1;
+                            stats.record(System.nanoTime() - start, status, status == 200 || status == 400);
+                        }
+                    });
+            })
+            .toList();
+        return refreshes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private HttpRequest post(String path, String bearerToken, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .timeout(Duration.ofMinutes(1))
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (bearerToken != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        }
+        return builder.build();
+    }
+
+    private String refreshTokenOf(String responseBody) {
+        try {
+            return objectMapper.readTree(responseBody).path("payload").path("refresh_token").asText();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unexpected response: " + responseBody, ex);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.paulcera.bentabox.security.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.paulcera.bentabox.security.util.PasswordHashCalibrator;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordEncoderConfigTest {
+
+    private static final String LEGACY_HASH = "$2a$10$PTXcYdrD4a1qW5MJ8vY67uOkHe.pIpKW0i2xDx.qripSN1bzn1Tfa";
+    private static final String LEGACY_PASSWORD = "admin";
+
+    @Test
+    void passwordEncoder_bcrypt_prefixesNewHashesAndUpgradesLegacyOnes() {
+        PasswordEncoder encoder = encoder("bcrypt", 4, 1);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertTrue(encoder.matches(LEGACY_PASSWORD, LEGACY_HASH));
+        assertTrue(encoder.upgradeEncoding(LEGACY_HASH));
+    }
+
+    @Test
+    void passwordEncoder_bcryptStrengthRaised_upgradesWeakerHashes() {
+        String weakHash = encoder("bcrypt", 4, 1).encode("secret");
+
+        PasswordEncoder encoder = encoder("bcrypt", 5, 1);
+
+        assertTrue(encoder.matches("secret", weakHash));
+        assertTrue(encoder.upgradeEncoding(weakHash));
+    }
+
+    @Test
+    void passwordEncoder_argon2_encodesArgon2idAndUpgradesBcrypt() {
+        String bcryptHash = encoder("bcrypt", 4, 1).encode("secret");
+
+        PasswordEncoder encoder = encoder("argon2", 4, 1);
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{argon2}$argon2id$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertTrue(encoder.matches("secret", bcryptHash));
+        assertTrue(encoder.upgradeEncoding(bcryptHash));
+    }
+
+    @Test
+    void passwordEncoder_unknownEncoder_throwsException() {
+        PasswordEncoderConfig config = new PasswordEncoderConfig("md5", false, Duration.ZERO, 4, 1, 1024, 1);
+
+        assertThrows(IllegalStateException.class, config::passwordEncoder);
+    }
+
+    @Test
+    void calibrate_zeroTarget_keepsFloor() {
+        assertEquals(6, PasswordHashCalibrator.calibrate(BCryptPasswordEncoder::new, 6, 31, Duration.ZERO));
+    }
+
+    @Test
+    void calibrate_generousTarget_stopsAtMaximum() {
+        assertEquals(6, PasswordHashCalibrator.calibrate(BCryptPasswordEncoder::new, 4, 6, Duration.ofMinutes(1)));
+    }
+
+    private static PasswordEncoder encoder(String encoderId, int bcryptStrength, int argon2Iterations) {
+        return new PasswordEncoderConfig(encoderId, false, Duration.ZERO, bcryptStrength, argon2Iterations, 1024, 1)
+            .passwordEncoder();
+    }
+
+}
@@ -0,0 +1,367 @@
+package com.paulcera.bentabox.security.controller;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.jayway.jsonpath.JsonPath;
+import com.paulcera.bentabox.BaseIntegrationTestController;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.dto.LoginRequest;
+import com.paulcera.bentabox.security.dto.LoginRequestMother;
+import com.paulcera.bentabox.security.filter.JWTFilter;
+import com.paulcera.bentabox.security.model.RefreshTokenStatus;
+import com.paulcera.bentabox.security.model.UserPrincipalMother;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import com.paulcera.bentabox.security.service.AccessTokenDenylist;
+import com.paulcera.bentabox.security.service.JWTService;
+import com.paulcera.bentabox.security.service.TokenWatermarkRegistry;
+import com.paulcera.bentabox.security.service.VerifiedTokenCache;
+import com.paulcera.bentabox.security.util.JWTInput;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@Sql(scripts = "/authentication-controller-dataset.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class AuthenticationControllerIntegrationTest extends BaseIntegrationTestController {
+
+    @Autowired
+    private TokenVerifier tokenVerifier;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private WebUserRepository webUserRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenWatermarkRegistry tokenWatermarkRegistry;
+
+    @Autowired
+    private AccessTokenDenylist accessTokenDenylist;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+            .addFilter(new JWTFilter(tokenVerifier, jwtService, userDetailsService, tokenWatermarkRegistry,
+                accessTokenDenylist, verifiedTokenCache, meterRegistry))
+            .apply(SecurityMockMvcConfigurers.springSecurity())
+            .build();
+
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void login_validCredentials_successMessage() throws Exception {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(login))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Successfully logged in."))
+            .andExpect(jsonPath("$.payload.access_token").isNotEmpty())
+            .andExpect(jsonPath("$.payload.refresh_token").isNotEmpty());
+    }
+
+    @Test
+    void login_legacyPasswordHash_rehashedWithCurrentEncoder() throws Exception {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(login))
+            .andExpect(status().isOk());
+
+        WebUser admin = webUserRepository.findByUsername("admin")
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        assertTrue(admin.getPassword().startsWith("{bcrypt}$2a$04$"));
+    }
+
+    @Test
+    void login_invalidCredentials_badCredentialsError() throws Exception {
+        LoginRequest loginRequest = LoginRequestMother.adminIncorrect();
+
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(login))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("Bad credentials"))
+            .andExpect(jsonPath("$.payload").isEmpty());
+    }
+
+    @Test
+    void login_repeatedFailuresForOneUser_tooManyRequests() throws Exception {
+        LoginRequest loginRequest = LoginRequestMother.joeIncorrect();
+        String content = objectMapper.writeValueAsString(loginRequest);
+
+        for (int i = 0; i < 10; i++) {
+            MvcResult login = mockMvc.perform(post("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(content))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            mockMvc.perform(asyncDispatch(login))
+                .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+            .andExpect(jsonPath("$.message").value("Too many login attempts, try again later."));
+    }
+
+    @Test
+    void login_hasValidAuthBearerToken_alreadyLoggedInError() throws Exception {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+        String token = "Bearer " + jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        mockMvc.perform(post("/api/auth/login")
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("Already logged in."))
+            .andExpect(jsonPath("$.payload").isEmpty());
+    }
+
+    @Test
+    void logout_notExistingRefreshToken_tokenNotFoundError() throws Exception {
+        String token = "Bearer " + jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message", startsWith("No RefreshToken found with value: ")))
+            .andExpect(jsonPath("$.payload").isEmpty());
+    }
+
+    @Test
+    void logout_validRefreshToken_success() throws Exception {
+        WebUser webUser = webUserRepository.findById(1)
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        String bearerToken = "Bearer " + refreshToken;
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Successfully logged out."))
+            .andExpect(jsonPath("$.payload").isEmpty());
+
+        RefreshTokenStatus status = refreshTokenRepository.findStatusByTokenDigest(TokenDigest.of(refreshToken))
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this refresh_token"));
+
+        assertTrue(status.isRevoked());
+    }
+
+    @Test
+    void logout_validRefreshToken_rejectsAccessTokenOfSameSession() throws Exception {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String response = mockMvc.perform(asyncDispatch(login))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String accessToken = "Bearer " + JsonPath.read(response, "$.payload.access_token");
+        String refreshToken = "Bearer " + JsonPath.read(response, "$.payload.refresh_token");
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, refreshToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+        TestSecurityContextHolder.clearContext();
+
+        mockMvc.perform(post("/api/auth/logout-all")
+                .header(HttpHeaders.AUTHORIZATION, accessToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void logoutAll_refreshTokenAsBearer_forbidden() throws Exception {
+        WebUser webUser = webUserRepository.findById(1)
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        String bearerToken = "Bearer " + jwtService.generateRefreshToken(webUser);
+
+        mockMvc.perform(post("/api/auth/logout-all")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void refresh_invalidRefreshToken_invalidRefreshTokenError() throws Exception {
+        String bearerToken = "Bearer " + jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("RefreshToken is not valid."))
+            .andExpect(jsonPath("$.payload").isEmpty());
+    }
+
+    @Test
+    void refresh_malformedBearerToken_forbidden() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void refresh_expiredBearerToken_forbidden() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + JWTInput.expiredAdminToken())
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void refresh_validRefreshToken_success() throws Exception {
+        WebUser webUser = webUserRepository.findById(1)
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        String bearerToken = "Bearer " + refreshToken;
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("New token issued."))
+            .andExpect(jsonPath("$.payload.access_token").isNotEmpty())
+            .andExpect(jsonPath("$.payload.refresh_token").isNotEmpty())
+            .andExpect(jsonPath("$.payload.refresh_token").value(not(refreshToken)));
+
+        RefreshTokenStatus status = refreshTokenRepository.findStatusByTokenDigest(TokenDigest.of(refreshToken))
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this refresh_token"));
+
+        assertTrue(status.isRevoked());
+    }
+
+    @Test
+    void refresh_parallelRefreshesWithSameToken_exactlyOneSucceeds() throws Exception {
+        WebUser webUser = webUserRepository.findById(1)
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        String bearerToken = "Bearer " + jwtService.generateRefreshToken(webUser);
+        int parallelRefreshes = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelRefreshes);
+        List<MvcResult> results;
+        try {
+            List<Callable<MvcResult>> refreshes = new ArrayList<>();
+            for (int i = 0; i < parallelRefreshes; i++) {
+                refreshes.add(() -> mockMvc.perform(post("/api/auth/refresh")
+                        .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                        .contentType(MediaType.APPLICATION_JSON))
+                    .andReturn());
+            }
+            results = new ArrayList<>();
+            for (Future<MvcResult> future : executor.invokeAll(refreshes)) {
+                results.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<MvcResult> succeeded = results.stream()
+            .filter(result -> result.getResponse().getStatus() == HttpStatus.OK.value())
+            .toList();
+        assertEquals(1, succeeded.size());
+        assertEquals(parallelRefreshes - 1, results.stream()
+            .filter(result -> result.getResponse().getStatus() == HttpStatus.BAD_REQUEST.value())
+            .count());
+
+        String successor = JsonPath.read(succeeded.get(0).getResponse().getContentAsString(), "$.payload.refresh_token");
+        assertTrue(refreshTokenRepository.findStatusByTokenDigest(TokenDigest.of(successor))
+            .map(RefreshTokenStatus::isActive)
+            .orElse(false));
+    }
+
+    @Test
+    void logoutAll_validAccessToken_rejectsEveryEarlierToken() throws Exception {
+        WebUser webUser = webUserRepository.findByUsername("joe")
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        String accessToken = "Bearer " + jwtService.generateAccessToken(UserPrincipalMother.joe());
+        String refreshToken = "Bearer " + jwtService.generateRefreshToken(webUser);
+        // Tokens issued in the same second as the watermark are still accepted, since iat has second precision.
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+
+        mockMvc.perform(post("/api/auth/logout-all")
+                .header(HttpHeaders.AUTHORIZATION, accessToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value("Successfully logged out of all sessions."));
+        TestSecurityContextHolder.clearContext();
+
+        mockMvc.perform(post("/api/auth/logout-all")
+                .header(HttpHeaders.AUTHORIZATION, accessToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/auth/refresh")
+                .header(HttpHeaders.AUTHORIZATION, refreshToken)
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isForbidden());
+        assertNotNull(webUserRepository.findByUsername("joe").map(WebUser::getTokensValidAfter).orElse(null));
+    }
+
+}
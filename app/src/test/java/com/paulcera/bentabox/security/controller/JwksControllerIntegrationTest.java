@@ -0,0 +1,32 @@
+package com.paulcera.bentabox.security.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.paulcera.bentabox.BaseIntegrationTestController;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+class JwksControllerIntegrationTest extends BaseIntegrationTestController {
+
+    @Test
+    void jwks_anonymousRequest_returnsCacheableKeySet() throws Exception {
+        mockMvc.perform(get(JwksController.JWKS_PATH))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.keys").isArray());
+    }
+
+    @Test
+    void jwks_matchingETag_notModified() throws Exception {
+        MvcResult first = mockMvc.perform(get(JwksController.JWKS_PATH)).andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(JwksController.JWKS_PATH).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,66 @@
+package com.paulcera.bentabox.security.controller;
+
+import static com.paulcera.bentabox.security.util.UnitTestProps.ed25519KeyPair;
+import static com.paulcera.bentabox.security.util.UnitTestProps.es256KeyPair;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.security.service.JWTService;
+import io.jsonwebtoken.security.PublicJwk;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@ExtendWith(MockitoExtension.class)
+class JwksControllerTest {
+
+    @Mock
+    private JWTService jwtService;
+
+    private JwksController jwksController;
+
+    @BeforeEach
+    void setup() {
+        jwksController = new JwksController(jwtService, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void jwks_asymmetricKeys_publishesEachKeyWithItsId() {
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        publicKeys.put("current", es256KeyPair().getPublic());
+        publicKeys.put("previous", ed25519KeyPair().getPublic());
+        when(jwtService.getPublicKeys()).thenReturn(publicKeys);
+
+        ResponseEntity<Map<String, List<PublicJwk<?>>>> response = jwksController.jwks(null);
+
+        List<PublicJwk<?>> keys = response.getBody().get("keys");
+        assertEquals(2, keys.size());
+        assertEquals("current", keys.get(0).getId());
+        assertEquals("ES256", keys.get(0).getAlgorithm());
+        assertEquals("previous", keys.get(1).getId());
+        assertEquals("EdDSA", keys.get(1).getAlgorithm());
+    }
+
+    @Test
+    void jwks_keyRotated_changesETag() {
+        when(jwtService.getPublicKeys())
+            .thenReturn(Map.of("current", es256KeyPair().getPublic()))
+            .thenReturn(Map.of("rotated", es256KeyPair().getPublic()));
+
+        String before = jwksController.jwks(null).getHeaders().getETag();
+        ResponseEntity<Map<String, List<PublicJwk<?>>>> after = jwksController.jwks(before);
+
+        assertEquals(HttpStatus.OK, after.getStatusCode());
+        assertNotEquals(before, after.getHeaders().getETag());
+    }
+}
@@ -10,4 +10,12 @@ public class LoginRequestMother {
         return new LoginRequest("admin", "adminx");
     }
 
+    public static LoginRequest joe() {
+        return new LoginRequest("joe", "admin");
+    }
+
+    public static LoginRequest joeIncorrect() {
+        return new LoginRequest("joe", "joex");
+    }
+
 }
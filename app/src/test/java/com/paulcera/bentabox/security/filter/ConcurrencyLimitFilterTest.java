@@ -0,0 +1,66 @@
+package com.paulcera.bentabox.security.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.security.util.AimdConcurrencyLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AimdConcurrencyLimit concurrencyLimit = new AimdConcurrencyLimit(1, 1, 1, Long.MAX_VALUE, 0.9,
+        System::nanoTime);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, concurrencyLimit,
+        Duration.ofSeconds(2), new ObjectMapper(), meterRegistry);
+
+    @Test
+    void doFilter_belowLimit_passesRequestOnAndReleasesSlot() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, concurrencyLimit.getInFlight());
+        assertEquals(1.0, meterRegistry.get("concurrency.admissions").tag("outcome", "accepted").counter().count());
+        assertEquals(1.0, meterRegistry.get("concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void doFilter_limitReached_shedsWithServiceUnavailable() throws Exception {
+        concurrencyLimit.tryAcquire();
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("Server is busy, try again later.",
+            new ObjectMapper().readTree(response.getContentAsString()).get("message").asText());
+        assertEquals(1.0, meterRegistry.get("concurrency.admissions").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void doFilter_actuatorPath_neverShed() throws Exception {
+        concurrencyLimit.tryAcquire();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+}
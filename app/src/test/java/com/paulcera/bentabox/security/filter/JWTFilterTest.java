@@ -0,0 +1,267 @@
+package com.paulcera.bentabox.security.filter;
+
+import static com.paulcera.bentabox.security.util.UnitTestProps.accessTokenExpiration;
+import static com.paulcera.bentabox.security.util.UnitTestProps.jwtSecretKey;
+import static com.paulcera.bentabox.security.util.UnitTestProps.refreshTokenExpiration;
+import static com.paulcera.bentabox.security.util.UnitTestProps.reuseGracePeriod;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.jwt.JWTKeyRing;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.UserPrincipalMother;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import com.paulcera.bentabox.security.service.AccessTokenDenylist;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import com.paulcera.bentabox.security.service.RepositoryRefreshTokenWriter;
+import com.paulcera.bentabox.security.service.RevocationPropagator;
+import com.paulcera.bentabox.security.service.TokenWatermarkRegistry;
+import com.paulcera.bentabox.security.service.VerifiedTokenCache;
+import com.paulcera.bentabox.security.util.HttpServletRequestMother;
+import com.paulcera.bentabox.security.util.JWTInput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.util.unit.DataSize;
+
+@ExtendWith(MockitoExtension.class)
+class JWTFilterTest {
+
+    private JWTServiceImpl jwtService;
+
+    private JWTFilter jwtFilter;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private WebUserRepository webUserRepository;
+
+    private TokenWatermarkRegistry tokenWatermarkRegistry;
+
+    @Mock
+    private RevocationPropagator revocationPropagator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccessTokenDenylist accessTokenDenylist = new AccessTokenDenylist(meterRegistry);
+
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(true, DataSize.ofMegabytes(1),
+        Duration.ofHours(1), meterRegistry);
+
+    @BeforeEach
+    void setup() {
+        TokenVerifier tokenVerifier = new TokenVerifier(JWTKeyRing.of(jwtSecretKey(), List.of()));
+        jwtService = new JWTServiceImpl(tokenVerifier, accessTokenExpiration(), refreshTokenExpiration(),
+            reuseGracePeriod(), refreshTokenRepository, new RepositoryRefreshTokenWriter(refreshTokenRepository),
+            revocationPropagator, verifiedTokenCache, meterRegistry);
+        tokenWatermarkRegistry = new TokenWatermarkRegistry(webUserRepository);
+        jwtFilter = new JWTFilter(tokenVerifier, jwtService, userDetailsService, tokenWatermarkRegistry,
+            accessTokenDenylist, verifiedTokenCache, meterRegistry);
+        jwtFilter.setClaimsOnlyRequestMatcher(new AntPathRequestMatcher("/api/reports/**"));
+        jwtFilter.setRefreshTokenRequestMatcher(new AntPathRequestMatcher("/api/auth/refresh"));
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_validTokenOnDefaultPath_loadsUser() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(jwtService.generateAccessToken(admin));
+        request.setServletPath("/api/auth/refresh");
+        when(userDetailsService.loadUserByUsername(admin.getUsername())).thenReturn(admin);
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(admin, authentication.getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername(admin.getUsername());
+    }
+
+    @Test
+    void doFilter_validTokenOnClaimsOnlyPath_skipsUserLookup() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(jwtService.generateAccessToken(admin));
+        request.setServletPath("/api/reports/daily");
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        assertEquals(admin.getUsername(), principal.getUsername());
+        assertEquals(admin.webUser().getId(), principal.webUser().getId());
+        assertEquals("USER", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_refreshTokenOnRefreshPath_loadsUser() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(
+            jwtService.generateRefreshToken(admin.webUser()));
+        request.setServletPath("/api/auth/refresh");
+        when(userDetailsService.loadUserByUsername(admin.getUsername())).thenReturn(admin);
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, times(1)).loadUserByUsername(admin.getUsername());
+    }
+
+    @Test
+    void doFilter_refreshTokenOnOtherPath_doesNotAuthenticate() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(
+            jwtService.generateRefreshToken(admin.webUser()));
+        request.setServletPath("/api/reports/daily");
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertEquals(1, stageCount("validate", "rejected"));
+    }
+
+    @Test
+    void doFilter_expiredToken_leavesRequestUnauthenticated() throws Exception {
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(JWTInput.expiredAdminToken());
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_tokenIssuedBeforeWatermark_leavesRequestUnauthenticated() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(jwtService.generateAccessToken(admin));
+        tokenWatermarkRegistry.update(admin.getUsername(), Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_tokenIssuedAfterWatermark_loadsUser() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        tokenWatermarkRegistry.update(admin.getUsername(), Instant.now().minus(1, ChronoUnit.MINUTES));
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(jwtService.generateAccessToken(admin));
+        when(userDetailsService.loadUserByUsername(admin.getUsername())).thenReturn(admin);
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_reloginInSameSecondAsWatermark_loadsUser() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        String token = jwtService.generateAccessToken(admin);
+        Instant issuedAt = jwtService.verifyToken(token).orElseThrow().issuedAt();
+        tokenWatermarkRegistry.update(admin.getUsername(), issuedAt.plusMillis(999));
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(token);
+        when(userDetailsService.loadUserByUsername(admin.getUsername())).thenReturn(admin);
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_tokenOfDeniedSession_leavesRequestUnauthenticated() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(
+            jwtService.generateAccessToken(admin, "family"));
+        accessTokenDenylist.deny("family", Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_validToken_recordsEveryStageAsValid() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(jwtService.generateAccessToken(admin));
+        when(userDetailsService.loadUserByUsername(admin.getUsername())).thenReturn(admin);
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, stageCount("verify", "valid"));
+        assertEquals(1, stageCount("revocation-check", "valid"));
+        assertEquals(1, stageCount("user-load", "valid"));
+        assertEquals(1, stageCount("validate", "valid"));
+    }
+
+    @Test
+    void doFilter_expiredToken_recordsExpiredOutcome() throws Exception {
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(JWTInput.expiredAdminToken());
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, stageCount("verify", "expired"));
+        assertEquals(0, stageCount("revocation-check", "valid"));
+    }
+
+    @Test
+    void doFilter_malformedToken_recordsMalformedOutcome() throws Exception {
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken("not-a-token");
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, stageCount("verify", "malformed"));
+    }
+
+    @Test
+    void doFilter_tokenOfDeniedSession_recordsRevokedOutcome() throws Exception {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        MockHttpServletRequest request = HttpServletRequestMother.withBearerToken(
+            jwtService.generateAccessToken(admin, "family"));
+        accessTokenDenylist.deny("family", Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, stageCount("verify", "valid"));
+        assertEquals(1, stageCount("revocation-check", "revoked"));
+        assertEquals(0, stageCount("user-load", "valid"));
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return meterRegistry.get("auth.filter").tag("stage", stage).tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,69 @@
+package com.paulcera.bentabox.security.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.paulcera.bentabox.security.util.FlightRecordings;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+class RecordingPasswordEncoderTest {
+
+    private static final String EVENT = "com.paulcera.bentabox.PasswordHash";
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final RecordingPasswordEncoder encoder = new RecordingPasswordEncoder(
+        new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt)), "bcrypt");
+
+    @Test
+    void encode_emitsEncodeEvent() {
+        List<RecordedEvent> events = FlightRecordings.record(EVENT, () -> encoder.encode("admin"));
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("encode", event.getString("operation"));
+        assertEquals("bcrypt", event.getString("algorithm"));
+        assertEquals("valid", event.getString("outcome"));
+        assertFalse(event.getDuration().isNegative());
+    }
+
+    @Test
+    void matches_wrongPassword_emitsRejectedMatchEvent() {
+        String encoded = encoder.encode("admin");
+
+        boolean[] matches = new boolean[1];
+        List<RecordedEvent> events = FlightRecordings.record(EVENT, () -> matches[0] = encoder.matches("joe", encoded));
+
+        assertFalse(matches[0]);
+        assertEquals(1, events.size());
+        assertEquals("matches", events.get(0).getString("operation"));
+        assertEquals("rejected", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    void matches_legacyUnprefixedHash_delegatesAndReportsBcrypt() {
+        RecordingPasswordEncoder legacyEncoder = new RecordingPasswordEncoder(bcrypt, "bcrypt");
+        String encoded = bcrypt.encode("admin");
+
+        boolean[] matches = new boolean[1];
+        List<RecordedEvent> events = FlightRecordings.record(EVENT,
+            () -> matches[0] = legacyEncoder.matches("admin", encoded));
+
+        assertTrue(matches[0]);
+        assertEquals("bcrypt", events.get(0).getString("algorithm"));
+        assertEquals("valid", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    void matches_withoutRecording_stillDelegates() {
+        String encoded = encoder.encode("admin");
+
+        assertTrue(encoder.matches("admin", encoded));
+        assertFalse(encoder.upgradeEncoding(encoded));
+    }
+}
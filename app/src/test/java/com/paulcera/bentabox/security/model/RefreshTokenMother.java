@@ -7,7 +7,7 @@ public class RefreshTokenMother {
     public static RefreshToken token() {
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setId(1);
-        refreshToken.setToken("refreshToken");
+        refreshToken.setTokenDigest("refreshToken");
         refreshToken.setExpiryDate(Instant.now());
         refreshToken.setCreatedDate(Instant.now());
         return refreshToken;
@@ -6,4 +6,8 @@ public class UserPrincipalMother {
         return new UserPrincipal(WebUserMother.admin());
     }
 
+    public static UserPrincipal joe() {
+        return new UserPrincipal(WebUserMother.joe());
+    }
+
 }
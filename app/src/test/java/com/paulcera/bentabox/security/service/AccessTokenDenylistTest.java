@@ -0,0 +1,69 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AccessTokenDenylistTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccessTokenDenylist accessTokenDenylist = new AccessTokenDenylist(meterRegistry);
+
+    @Test
+    void isDenied_deniedTokenId_returnsTrue() {
+        accessTokenDenylist.deny("token-id", Instant.now().plusSeconds(60));
+
+        assertTrue(accessTokenDenylist.isDenied(claims(Map.of(TokenClaims.TOKEN_ID, "token-id"))));
+        assertFalse(accessTokenDenylist.isDenied(claims(Map.of(TokenClaims.TOKEN_ID, "other-id"))));
+    }
+
+    @Test
+    void isDenied_deniedSessionId_returnsTrue() {
+        accessTokenDenylist.deny("family", Instant.now().plusSeconds(60));
+
+        assertTrue(accessTokenDenylist.isDenied(claims(Map.of(TokenClaims.SESSION_ID, "family"))));
+        assertTrue(accessTokenDenylist.isDenied(claims(Map.of(TokenClaims.FAMILY_ID, "family"))));
+    }
+
+    @Test
+    void deny_alreadyExpired_isIgnored() {
+        accessTokenDenylist.deny("token-id", Instant.now().minusSeconds(1));
+
+        assertEquals(0, accessTokenDenylist.size());
+    }
+
+    @Test
+    void sweep_expiredEntries_areRemoved() throws InterruptedException {
+        accessTokenDenylist.deny("short-lived", Instant.now().plusMillis(20));
+        accessTokenDenylist.deny("long-lived", Instant.now().plusSeconds(60));
+        Thread.sleep(50);
+
+        accessTokenDenylist.sweep();
+
+        assertEquals(1, accessTokenDenylist.size());
+        assertEquals(1.0, meterRegistry.get("revocation.denylist.size").gauge().value());
+        assertTrue(accessTokenDenylist.isDenied(claims(Map.of(TokenClaims.TOKEN_ID, "long-lived"))));
+    }
+
+    @Test
+    void sweep_entryExtendedAfterFirstDeny_keepsLaterExpiry() throws InterruptedException {
+        accessTokenDenylist.deny("family", Instant.now().plusMillis(20));
+        accessTokenDenylist.deny("family", Instant.now().plusSeconds(60));
+        Thread.sleep(50);
+
+        accessTokenDenylist.sweep();
+
+        assertTrue(accessTokenDenylist.isDenied(claims(Map.of(TokenClaims.SESSION_ID, "family"))));
+    }
+
+    private static TokenClaims claims(Map<String, Object> claims) {
+        return new TokenClaims("admin", Instant.now(), Instant.now().plusSeconds(60), claims);
+    }
+}
@@ -0,0 +1,190 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.security.dto.LoginRequest;
+import com.paulcera.bentabox.security.dto.LoginRequestMother;
+import com.paulcera.bentabox.security.exception.InvalidRefreshTokenException;
+import com.paulcera.bentabox.security.exception.LoginCapacityExceededException;
+import com.paulcera.bentabox.security.exception.LoginRateLimitedException;
+import com.paulcera.bentabox.security.model.AuthenticationToken;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.UserPrincipalMother;
+import com.paulcera.bentabox.security.util.HttpServletRequestMother;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationServiceTest {
+
+    @InjectMocks
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JWTService jwtService;
+
+    @Mock
+    private WebUserService webUserService;
+
+    @Mock
+    private LoginExecutor loginExecutor;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void authenticate_hasValidCredentials_success() {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+        Authentication mockedAuthentication = mock(Authentication.class);
+        UserPrincipal userPrincipal = UserPrincipalMother.admin();
+        when(mockedAuthentication.getPrincipal()).thenReturn(userPrincipal);
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(mockedAuthentication);
+        when(jwtService.generateAccessToken(eq(userPrincipal), anyString())).thenReturn("access-token");
+        when(jwtService.generateRefreshToken(eq(userPrincipal.webUser()), anyString())).thenReturn("refresh-token");
+
+        AuthenticationToken result = authenticationService.authenticate(loginRequest);
+
+        assertNotNull(result);
+        assertEquals("access-token", result.accessToken());
+        assertEquals("refresh-token", result.refreshToken());
+        verify(webUserService, times(1)).upgradePasswordEncoding(userPrincipal.webUser(), loginRequest.getPassword());
+    }
+
+    @Test
+    void authenticate_hasInvalidCredentials_throwsException() {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+            .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        BadCredentialsException thrown = assertThrows(
+            BadCredentialsException.class,
+            () -> authenticationService.authenticate(loginRequest),
+            "Expected authenticate() to throw BadCredentialsException, but it didn't"
+        );
+
+        assertEquals("Bad credentials", thrown.getMessage());
+        assertEquals(1, meterRegistry.get("auth.login").tag("stage", "credentials").tag("outcome", "rejected")
+            .timer().count());
+    }
+
+    @Test
+    void authenticateAsync_capacityExceeded_throwsBeforeAuthenticating() {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+        when(loginExecutor.submit(any())).thenThrow(new LoginCapacityExceededException("busy", Duration.ofSeconds(1)));
+
+        assertThrows(LoginCapacityExceededException.class,
+            () -> authenticationService.authenticateAsync(loginRequest, "10.0.0.1"));
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void authenticateAsync_rateLimited_throwsBeforeQueueing() {
+        LoginRequest loginRequest = LoginRequestMother.admin();
+        doThrow(new LoginRateLimitedException("slow down", Duration.ofSeconds(30)))
+            .when(loginRateLimiter).checkAttempt("admin", "10.0.0.1");
+
+        assertThrows(LoginRateLimitedException.class,
+            () -> authenticationService.authenticateAsync(loginRequest, "10.0.0.1"));
+        verify(loginExecutor, never()).submit(any());
+    }
+
+    @Test
+    void initiateLogout_callsExpectedService() {
+        String myToken = "jwt-token";
+        HttpServletRequest request = HttpServletRequestMother.withBearerToken(myToken);
+
+        authenticationService.initiateLogout(request);
+
+        verify(jwtService, times(1)).invalidateToken(myToken);
+    }
+
+    @Test
+    void issueNewToken_hasValidRefreshToken_success() {
+        try (MockedStatic<SecurityContextHolder> mockedContextHolder = mockStatic(SecurityContextHolder.class)){
+            String myRefreshToken = "refresh-jwt";
+            String newRefreshToken = "refresh-jwt-new";
+            String newAccessToken = "access-jwt-new";
+            HttpServletRequest request = HttpServletRequestMother.withBearerToken(myRefreshToken);
+            UserPrincipal admin = mockAuthenticatedPrincipal(mockedContextHolder);
+
+            when(jwtService.rotateRefreshToken(myRefreshToken, admin.webUser())).thenReturn(newRefreshToken);
+            when(jwtService.verifyToken(newRefreshToken)).thenReturn(Optional.of(new TokenClaims(admin.getUsername(),
+                Instant.now(), Instant.now().plusSeconds(60), Map.of(TokenClaims.FAMILY_ID, "family"))));
+            when(jwtService.generateAccessToken(admin, "family")).thenReturn(newAccessToken);
+
+            AuthenticationToken result = authenticationService.issueNewToken(request);
+
+            assertEquals(newAccessToken, result.accessToken());
+            assertEquals(newRefreshToken, result.refreshToken());
+        }
+    }
+
+    @Test
+    void issueNewToken_hasInvalidRefreshToken_throwsException() {
+        try (MockedStatic<SecurityContextHolder> mockedContextHolder = mockStatic(SecurityContextHolder.class)){
+            String myToken = "jwt-token";
+            HttpServletRequest request = HttpServletRequestMother.withBearerToken(myToken);
+            UserPrincipal admin = mockAuthenticatedPrincipal(mockedContextHolder);
+
+            when(jwtService.rotateRefreshToken(myToken, admin.webUser()))
+                .thenThrow(new InvalidRefreshTokenException("RefreshToken is not valid."));
+
+            InvalidRefreshTokenException thrown = assertThrows(
+                InvalidRefreshTokenException.class,
+                () -> authenticationService.issueNewToken(request),
+                "Expected issueNewToken() to throw InvalidRefreshTokenException, but it didn't"
+            );
+
+            assertEquals("RefreshToken is not valid.", thrown.getMessage());
+            verify(jwtService, never()).generateAccessToken(any(UserPrincipal.class), any());
+        }
+    }
+
+    private UserPrincipal mockAuthenticatedPrincipal(MockedStatic<SecurityContextHolder> mockedContextHolder) {
+        SecurityContext mockedSecurityContext = mock(SecurityContext.class);
+        Authentication mockedAuthentication = mock(Authentication.class);
+        mockedContextHolder.when(SecurityContextHolder::getContext).thenReturn(mockedSecurityContext);
+        when(mockedSecurityContext.getAuthentication()).thenReturn(mockedAuthentication);
+
+        UserPrincipal admin = UserPrincipalMother.admin();
+        when(mockedAuthentication.getPrincipal()).thenReturn(admin);
+        return admin;
+    }
+}
@@ -0,0 +1,66 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.paulcera.bentabox.BaseIntegrationTestController;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.security.dto.LoginRequestMother;
+import com.paulcera.bentabox.security.model.AuthenticationToken;
+import com.paulcera.bentabox.security.model.RefreshTokenStatus;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+@TestPropertySource(properties = "spring.application.security.refresh-token.group-commit.enabled=true")
+@Sql(scripts = "/authentication-controller-dataset.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class GroupCommitRefreshTokenWriterIntegrationTest extends BaseIntegrationTestController {
+
+    private static final int LOGINS = 16;
+
+    @Autowired
+    private RefreshTokenWriter refreshTokenWriter;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Test
+    void authenticate_concurrentLogins_everyRefreshTokenIsStoredWhenLoginReturns() throws Exception {
+        assertInstanceOf(GroupCommitRefreshTokenWriter.class, refreshTokenWriter);
+        refreshTokenRepository.deleteAll();
+
+        ExecutorService executor = Executors.newFixedThreadPool(LOGINS);
+        try {
+            List<Future<AuthenticationToken>> logins = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                boolean admin = i % 2 == 0;
+                logins.add(executor.submit(() -> authenticationService.authenticate(
+                    admin ? LoginRequestMother.admin() : LoginRequestMother.joe())));
+            }
+
+            for (Future<AuthenticationToken> login : logins) {
+                AuthenticationToken token = login.get(30, TimeUnit.SECONDS);
+                assertTrue(refreshTokenRepository.findStatusByTokenDigest(TokenDigest.of(token.refreshToken()))
+                    .map(RefreshTokenStatus::isActive)
+                    .orElse(false));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(LOGINS, refreshTokenRepository.count());
+    }
+}
@@ -0,0 +1,179 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.model.WebUserMother;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitRefreshTokenWriterTest {
+
+    private static final int COLUMNS = 5;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private GroupCommitRefreshTokenWriter writer;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        writer = new GroupCommitRefreshTokenWriter(jdbcTemplate, refreshTokenRepository, 64, Duration.ofMillis(1),
+            Duration.ofMillis(200), meterRegistry);
+        writer.start();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void cleanup() throws InterruptedException {
+        executor.shutdownNow();
+        writer.stop();
+    }
+
+    @Test
+    void insert_whileFlushInProgress_joinsNextBatch() throws Exception {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length);
+            batchSizes.add(args.length / COLUMNS);
+            firstFlushStarted.countDown();
+            releaseFirstFlush.await(5, TimeUnit.SECONDS);
+            return args.length / COLUMNS;
+        });
+
+        List<Future<?>> inserts = new ArrayList<>();
+        inserts.add(executor.submit(() -> writer.insert(refreshToken("first"))));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            String digest = "next-" + i;
+            inserts.add(executor.submit(() -> writer.insert(refreshToken(digest))));
+        }
+        Thread.sleep(100);
+        releaseFirstFlush.countDown();
+
+        for (Future<?> insert : inserts) {
+            insert.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(1, 5), batchSizes);
+        DistributionSummary batchSize = meterRegistry.get("refresh.tokens.group.commit.batch.size").summary();
+        assertEquals(2, batchSize.count());
+        assertEquals(5, batchSize.max());
+    }
+
+    @Test
+    void insert_batchFails_retriesRowsOneByOneAndFailsOnlyTheBadRow() throws Exception {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length);
+            firstFlushStarted.countDown();
+            releaseFirstFlush.await(5, TimeUnit.SECONDS);
+            if (Arrays.asList(args).contains("duplicate")) {
+                throw new DataIntegrityViolationException("duplicate token");
+            }
+            return args.length / COLUMNS;
+        });
+
+        Future<?> first = executor.submit(() -> writer.insert(refreshToken("first")));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        Future<?> good = executor.submit(() -> writer.insert(refreshToken("good")));
+        Future<?> bad = executor.submit(() -> writer.insert(refreshToken("duplicate")));
+        Thread.sleep(100);
+        releaseFirstFlush.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        good.get(5, TimeUnit.SECONDS);
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, thrown.getCause());
+    }
+
+    @Test
+    void insert_writerStuck_callerSavesThroughRepositoryOnce() throws Exception {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            firstFlushStarted.countDown();
+            releaseFirstFlush.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        RefreshToken late = refreshToken("late");
+
+        Future<?> first = executor.submit(() -> writer.insert(refreshToken("first")));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> writer.insert(late)).get(5, TimeUnit.SECONDS);
+        releaseFirstFlush.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        writer.stop();
+
+        verify(refreshTokenRepository).save(late);
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+        assertEquals(1, meterRegistry.get("refresh.tokens.group.commit.timeouts").counter().count());
+    }
+
+    @Test
+    void insert_insideTransaction_savesThroughRepository() {
+        RefreshToken refreshToken = refreshToken("rotated");
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            writer.insert(refreshToken);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verify(refreshTokenRepository).save(refreshToken);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void insert_afterStop_stillInserts() throws InterruptedException {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        writer.stop();
+
+        writer.insert(refreshToken("late"));
+
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+    }
+
+    private static RefreshToken refreshToken(String digest) {
+        return new RefreshToken(digest, "family", WebUserMother.admin(), 60_000);
+    }
+}
@@ -0,0 +1,494 @@
+package com.paulcera.bentabox.security.service;
+
+
+import static com.paulcera.bentabox.security.util.UnitTestProps.accessTokenExpiration;
+import static com.paulcera.bentabox.security.util.UnitTestProps.ed25519KeyPair;
+import static com.paulcera.bentabox.security.util.UnitTestProps.es256KeyPair;
+import static com.paulcera.bentabox.security.util.UnitTestProps.jwtSecretKey;
+import static com.paulcera.bentabox.security.util.UnitTestProps.refreshTokenExpiration;
+import static com.paulcera.bentabox.security.util.UnitTestProps.reuseGracePeriod;
+import static com.paulcera.bentabox.security.util.UnitTestProps.rotatedJwtSecretKey;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.jwt.JWTKeyRing;
+import com.paulcera.bentabox.jwt.JWTKeys;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.exception.InvalidRefreshTokenException;
+import com.paulcera.bentabox.security.exception.TokenNotFoundException;
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.model.RefreshTokenStatus;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.UserPrincipalMother;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.model.WebUserMother;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.util.FlightRecordings;
+import com.paulcera.bentabox.security.util.JWTInput;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.unit.DataSize;
+
+@ExtendWith(MockitoExtension.class)
+class JWTServiceImplTest {
+
+    private JWTServiceImpl jwtService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RevocationPropagator revocationPropagator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(true, DataSize.ofMegabytes(1),
+        Duration.ofHours(1), meterRegistry);
+
+    private final ArgumentCaptor<RefreshToken> refreshTokenCaptor = ArgumentCaptor.forClass(RefreshToken.class);
+
+    @BeforeEach
+    void setup() {
+        jwtService = serviceWith(JWTKeyRing.of(jwtSecretKey(), List.of()));
+    }
+
+    @Test
+    void generateAccessToken_withPassedUserPrincipal_returnsValidToken() {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        String token = jwtService.generateAccessToken(admin);
+
+        assertNotNull(token);
+        assertEquals(admin.getUsername(), jwtService.verifyToken(token).orElseThrow().subject());
+    }
+
+    @Test
+    void generateAccessToken_withPassedUserPrincipal_embedsUserIdAndAuthorities() {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        String token = jwtService.generateAccessToken(admin);
+
+        TokenClaims claims = jwtService.verifyToken(token).orElseThrow();
+
+        assertEquals(admin.webUser().getId(), claims.userId());
+        assertEquals(List.of("USER"), claims.authorities());
+    }
+
+    @Test
+    void generateRefreshToken_withPassedWebUser_returnsAndSaveValidToken() {
+        WebUser webUser = WebUserMother.admin();
+
+        String result = jwtService.generateRefreshToken(webUser);
+
+        assertNotNull(result);
+        verify(refreshTokenRepository, times(1)).save(refreshTokenCaptor.capture());
+        assertEquals(webUser.getUsername(), jwtService.verifyToken(result).orElseThrow().subject());
+        assertEquals(TokenDigest.of(result), refreshTokenCaptor.getValue().getTokenDigest());
+    }
+
+    @Test
+    void verifyToken_validToken_returnsClaims() {
+        String token = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        Optional<TokenClaims> result = jwtService.verifyToken(token);
+
+        assertTrue(result.isPresent());
+        assertEquals(WebUserMother.admin().getUsername(), result.get().subject());
+        assertNotNull(result.get().issuedAt());
+        assertTrue(result.get().expiration().isAfter(result.get().issuedAt()));
+    }
+
+    @Test
+    void verifyToken_expiredToken_returnsEmpty() {
+        Optional<TokenClaims> result = jwtService.verifyToken(JWTInput.expiredAdminToken());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void verifyToken_malformedToken_returnsEmpty() {
+        Optional<TokenClaims> result = jwtService.verifyToken("not-a-jwt");
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void verifyToken_expiredToken_recordsExpiredOutcome() {
+        jwtService.verifyToken(JWTInput.expiredAdminToken());
+
+        assertEquals(1, timerCount("jwt.verify", "expired"));
+        assertEquals(0, timerCount("jwt.verify", "valid"));
+    }
+
+    @Test
+    void verifyToken_expiredToken_emitsExpiredVerifyEvent() {
+        List<RecordedEvent> events = FlightRecordings.record("com.paulcera.bentabox.TokenVerify",
+            () -> jwtService.verifyToken(JWTInput.expiredAdminToken()));
+
+        assertEquals(1, events.size());
+        assertEquals("expired", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    void generateRefreshToken_emitsSignAndPersistEvents() {
+        WebUser webUser = WebUserMother.admin();
+
+        List<RecordedEvent> signEvents = FlightRecordings.record("com.paulcera.bentabox.TokenSign",
+            () -> jwtService.generateRefreshToken(webUser));
+        List<RecordedEvent> persistEvents = FlightRecordings.record("com.paulcera.bentabox.RefreshTokenPersist",
+            () -> jwtService.generateRefreshToken(webUser));
+
+        assertEquals(1, signEvents.size());
+        assertEquals("refresh", signEvents.get(0).getString("tokenType"));
+        assertEquals(1, persistEvents.size());
+        assertEquals("valid", persistEvents.get(0).getString("outcome"));
+    }
+
+    @Test
+    void verifyToken_sameTokenTwice_verifiesSignatureOnce() {
+        String token = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        List<RecordedEvent> events = FlightRecordings.record("com.paulcera.bentabox.TokenVerify", () -> {
+            jwtService.verifyToken(token);
+            jwtService.verifyToken(token);
+        });
+
+        assertEquals(1, events.size());
+        assertEquals(2, timerCount("jwt.verify", "valid"));
+    }
+
+    @Test
+    void isTokenValid_claimsOfDifferentUser_returnsFalse() {
+        String token = jwtService.generateAccessToken(UserPrincipalMother.joe());
+        TokenClaims claims = jwtService.verifyToken(token).orElseThrow();
+
+        boolean result = jwtService.isTokenValidForUser(claims, UserPrincipalMother.admin());
+
+        assertFalse(result);
+    }
+
+    @Test
+    void rotateRefreshToken_activeToken_issuesSuccessorInSameFamily() {
+        WebUser webUser = WebUserMother.admin();
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        when(refreshTokenRepository.revokeActiveByTokenDigest(eq(TokenDigest.of(refreshToken)), any(Instant.class)))
+            .thenReturn(1);
+
+        String successor = jwtService.rotateRefreshToken(refreshToken, webUser);
+
+        assertNotEquals(refreshToken, successor);
+        verify(refreshTokenRepository, times(2)).save(refreshTokenCaptor.capture());
+        List<RefreshToken> saved = refreshTokenCaptor.getAllValues();
+        assertEquals(saved.get(0).getFamilyId(), saved.get(1).getFamilyId());
+        assertEquals(TokenDigest.of(successor), saved.get(1).getTokenDigest());
+        assertEquals(saved.get(0).getFamilyId(),
+            jwtService.verifyToken(successor).orElseThrow().get(TokenClaims.FAMILY_ID, String.class));
+    }
+
+    @Test
+    void rotateRefreshToken_tokenRotatedWithinGracePeriod_rejectsWithoutRevokingFamily() {
+        WebUser webUser = WebUserMother.admin();
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        String tokenDigest = TokenDigest.of(refreshToken);
+        when(refreshTokenRepository.revokeActiveByTokenDigest(eq(tokenDigest), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findStatusByTokenDigest(tokenDigest))
+            .thenReturn(Optional.of(new RefreshTokenStatus(Instant.now(), Instant.now().plusSeconds(60))));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> jwtService.rotateRefreshToken(refreshToken, webUser));
+
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any(Instant.class));
+        assertEquals(1, timerCount("jwt.refresh.rotate", "rejected"));
+    }
+
+    @Test
+    void rotateRefreshToken_unknownToken_recordsRejectedOutcome() {
+        WebUser webUser = WebUserMother.admin();
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        String tokenDigest = TokenDigest.of(refreshToken);
+        when(refreshTokenRepository.revokeActiveByTokenDigest(eq(tokenDigest), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findStatusByTokenDigest(tokenDigest)).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> jwtService.rotateRefreshToken(refreshToken, webUser));
+
+        assertEquals(1, timerCount("jwt.refresh.rotate", "rejected"));
+        assertEquals(0, timerCount("jwt.refresh.rotate", "revoked"));
+    }
+
+    @Test
+    void rotateRefreshToken_tokenExpiredInDatabase_recordsExpiredOutcome() {
+        WebUser webUser = WebUserMother.admin();
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        String tokenDigest = TokenDigest.of(refreshToken);
+        when(refreshTokenRepository.revokeActiveByTokenDigest(eq(tokenDigest), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findStatusByTokenDigest(tokenDigest))
+            .thenReturn(Optional.of(new RefreshTokenStatus(null, Instant.now().minusSeconds(60))));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> jwtService.rotateRefreshToken(refreshToken, webUser));
+
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any(Instant.class));
+        assertEquals(1, timerCount("jwt.refresh.rotate", "expired"));
+    }
+
+    @Test
+    void rotateRefreshToken_replayedToken_revokesWholeFamily() {
+        WebUser webUser = WebUserMother.admin();
+        String refreshToken = jwtService.generateRefreshToken(webUser);
+        String tokenDigest = TokenDigest.of(refreshToken);
+        String familyId = jwtService.verifyToken(refreshToken).orElseThrow().get(TokenClaims.FAMILY_ID, String.class);
+        when(refreshTokenRepository.revokeActiveByTokenDigest(eq(tokenDigest), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.findStatusByTokenDigest(tokenDigest)).thenReturn(
+            Optional.of(new RefreshTokenStatus(Instant.now().minusSeconds(60), Instant.now().plusSeconds(60))));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> jwtService.rotateRefreshToken(refreshToken, webUser));
+
+        verify(refreshTokenRepository, times(1)).revokeFamily(eq(familyId), any(Instant.class));
+        verify(revocationPropagator, times(1)).denyToken(eq(familyId), any(Instant.class));
+        assertEquals(1, timerCount("jwt.refresh.rotate", "revoked"));
+    }
+
+    @Test
+    void isRefreshToken_issuedTokens_tellsAccessFromRefresh() {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        TokenClaims access = jwtService.verifyToken(jwtService.generateAccessToken(admin, "family")).orElseThrow();
+        TokenClaims refresh = jwtService.verifyToken(jwtService.generateRefreshToken(admin.webUser())).orElseThrow();
+
+        assertFalse(jwtService.isRefreshToken(access));
+        assertTrue(jwtService.isRefreshToken(refresh));
+    }
+
+    @Test
+    void isRefreshToken_tokenWithoutTokenUse_judgedByLifetime() {
+        Instant now = Instant.now();
+
+        assertFalse(jwtService.isRefreshToken(new TokenClaims("admin", now,
+            now.plusMillis(accessTokenExpiration()), Map.of())));
+        assertTrue(jwtService.isRefreshToken(new TokenClaims("admin", now,
+            now.plusMillis(refreshTokenExpiration()), Map.of())));
+    }
+
+    @Test
+    void rotateRefreshToken_expiredToken_throwsException() {
+        String expiredToken = JWTInput.expiredAdminToken();
+
+        InvalidRefreshTokenException thrown = assertThrows(
+            InvalidRefreshTokenException.class,
+            () -> jwtService.rotateRefreshToken(expiredToken, WebUserMother.admin()),
+            "Expected rotateRefreshToken() to throw InvalidRefreshTokenException, but it didn't"
+        );
+
+        assertEquals("RefreshToken is not valid.", thrown.getMessage());
+        verify(refreshTokenRepository, never()).revokeActiveByTokenDigest(any(), any(Instant.class));
+    }
+
+    @Test
+    void verifyToken_adminToken_returnsAdminSubject() {
+        String token = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        assertEquals("admin", jwtService.verifyToken(token).orElseThrow().subject());
+    }
+
+    @Test
+    void isTokenValid_hasValidToken_returnsTrue() {
+        String token = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        boolean result = isTokenValidForUser(token, UserPrincipalMother.admin());
+
+        assertTrue(result);
+    }
+
+    @Test
+    void isTokenValid_tokenExpired_returnsFalse() {
+        String expiredToken = JWTInput.expiredAdminToken();
+
+        boolean result = isTokenValidForUser(expiredToken, UserPrincipalMother.admin());
+
+        assertFalse(result);
+    }
+
+    @Test
+    void isTokenValid_tokenUsernameDifferent_returnsFalse() {
+        String tokenWithIncorrectUsername = jwtService.generateAccessToken(UserPrincipalMother.joe());
+
+        boolean result = isTokenValidForUser(tokenWithIncorrectUsername, UserPrincipalMother.admin());
+
+        assertFalse(result);
+    }
+
+    @Test
+    void rotatedKeyRing_tokenSignedWithPreviousKey_stillValid() {
+        String tokenBeforeRotation = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        jwtService = serviceWith(JWTKeyRing.of(rotatedJwtSecretKey(), List.of(jwtSecretKey())));
+        String tokenAfterRotation = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        assertTrue(isTokenValidForUser(tokenBeforeRotation, UserPrincipalMother.admin()));
+        assertTrue(isTokenValidForUser(tokenAfterRotation, UserPrincipalMother.admin()));
+    }
+
+    @Test
+    void verifyToken_tokenSignedWithUnknownKey_returnsEmpty() {
+        JWTServiceImpl otherService = serviceWith(JWTKeyRing.of(rotatedJwtSecretKey(), List.of()));
+        String foreignToken = otherService.generateAccessToken(UserPrincipalMother.admin());
+
+        assertTrue(jwtService.verifyToken(foreignToken).isEmpty());
+    }
+
+    @Test
+    void verifyToken_previousSecretKeyConfigured_acceptsTokenSignedWithIt() {
+        JWTServiceImpl previousService = serviceWith(JWTKeyRing.of(jwtSecretKey(), List.of()));
+        JWTServiceImpl rotatedService = serviceWith(JWTKeyRing.of(rotatedJwtSecretKey(), List.of(jwtSecretKey())));
+        String token = previousService.generateAccessToken(UserPrincipalMother.admin());
+
+        assertEquals(WebUserMother.admin().getUsername(), rotatedService.verifyToken(token).orElseThrow().subject());
+    }
+
+    @Test
+    void generateAccessToken_es256KeyPair_verifiesWithPublicKeyOnly() {
+        KeyPair keyPair = es256KeyPair();
+        jwtService = serviceWith(JWTKeyRing.of(keyPair, List.of()));
+
+        String token = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        assertTrue(headerOf(token).contains("\"alg\":\"ES256\""));
+        assertEquals(WebUserMother.admin().getUsername(), Jwts.parser().verifyWith(keyPair.getPublic()).build()
+            .parseSignedClaims(token).getPayload().getSubject());
+        assertEquals(1, jwtService.getPublicKeys().size());
+    }
+
+    @Test
+    void generateAccessToken_ed25519KeyPair_verifiesWithPublicKeyOnly() {
+        KeyPair keyPair = ed25519KeyPair();
+        jwtService = serviceWith(JWTKeyRing.of(keyPair, List.of()));
+
+        String token = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        assertTrue(headerOf(token).contains("\"alg\":\"EdDSA\""));
+        assertTrue(isTokenValidForUser(token, UserPrincipalMother.admin()));
+    }
+
+    @Test
+    void rotatedKeyRing_fromSecretToKeyPair_acceptsTokensSignedWithSecret() {
+        String hmacToken = jwtService.generateAccessToken(UserPrincipalMother.admin());
+
+        jwtService = serviceWith(JWTKeyRing.of(es256KeyPair(), List.of(JWTKeys.decodeSecretKey(jwtSecretKey()))));
+
+        assertTrue(isTokenValidForUser(hmacToken, UserPrincipalMother.admin()));
+        assertTrue(isTokenValidForUser(jwtService.generateAccessToken(UserPrincipalMother.admin()),
+            UserPrincipalMother.admin()));
+    }
+
+    @Test
+    void invalidateToken_tokenNotExisting_throwsException() {
+        String token = "token";
+        when(refreshTokenRepository.revokeByTokenDigest(eq(TokenDigest.of(token)), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.existsByTokenDigest(TokenDigest.of(token))).thenReturn(false);
+
+        TokenNotFoundException thrown = assertThrows(
+            TokenNotFoundException.class,
+            () -> jwtService.invalidateToken(token),
+            "Expected invalidateToken() to throw TokenNotFoundException, but it didn't"
+        );
+
+        assertEquals("No RefreshToken found with value: token", thrown.getMessage());
+    }
+
+    @Test
+    void invalidateToken_tokenExists_revokeToken() {
+        String token = "token";
+        when(refreshTokenRepository.revokeByTokenDigest(eq(TokenDigest.of(token)), any(Instant.class))).thenReturn(1);
+
+        jwtService.invalidateToken(token);
+
+        verify(refreshTokenRepository, times(1)).revokeByTokenDigest(eq(TokenDigest.of(token)), any(Instant.class));
+        verify(refreshTokenRepository, never()).existsByTokenDigest(TokenDigest.of(token));
+    }
+
+    @Test
+    void invalidateToken_refreshTokenExists_denylistsItsSession() {
+        UserPrincipal admin = UserPrincipalMother.admin();
+        String refreshToken = jwtService.generateRefreshToken(admin.webUser(), "family");
+        String accessToken = jwtService.generateAccessToken(admin, "family");
+        String otherAccessToken = jwtService.generateAccessToken(admin, "other-family");
+        when(refreshTokenRepository.revokeByTokenDigest(eq(TokenDigest.of(refreshToken)), any(Instant.class)))
+            .thenReturn(1);
+
+        jwtService.invalidateToken(refreshToken);
+
+        verify(revocationPropagator, times(1)).denyToken(
+            eq(jwtService.verifyToken(refreshToken).orElseThrow().tokenId()), any(Instant.class));
+        verify(revocationPropagator, times(1)).denyToken(eq("family"), any(Instant.class));
+        assertEquals("family", jwtService.verifyToken(accessToken).orElseThrow().sessionId());
+        assertEquals("other-family", jwtService.verifyToken(otherAccessToken).orElseThrow().sessionId());
+    }
+
+    @Test
+    void invalidateToken_refreshToken_deniesItsIdForOneAccessTokenLifetimeOnly() {
+        String refreshToken = jwtService.generateRefreshToken(WebUserMother.admin(), "family");
+        when(refreshTokenRepository.revokeByTokenDigest(eq(TokenDigest.of(refreshToken)), any(Instant.class)))
+            .thenReturn(1);
+        ArgumentCaptor<Instant> until = ArgumentCaptor.forClass(Instant.class);
+        Instant latest = Instant.now().plusMillis(accessTokenExpiration());
+
+        jwtService.invalidateToken(refreshToken);
+
+        verify(revocationPropagator).denyToken(eq(jwtService.verifyToken(refreshToken).orElseThrow().tokenId()),
+            until.capture());
+        assertFalse(until.getValue().isAfter(latest.plusSeconds(1)));
+    }
+
+    @Test
+    void invalidateToken_tokenAlreadyRevoked_doesNothing() {
+        String token = "token";
+        when(refreshTokenRepository.revokeByTokenDigest(eq(TokenDigest.of(token)), any(Instant.class))).thenReturn(0);
+        when(refreshTokenRepository.existsByTokenDigest(TokenDigest.of(token))).thenReturn(true);
+
+        jwtService.invalidateToken(token);
+
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    private JWTServiceImpl serviceWith(JWTKeyRing keyRing) {
+        return new JWTServiceImpl(new TokenVerifier(keyRing), accessTokenExpiration(), refreshTokenExpiration(),
+            reuseGracePeriod(), refreshTokenRepository, new RepositoryRefreshTokenWriter(refreshTokenRepository),
+            revocationPropagator, verifiedTokenCache, meterRegistry);
+    }
+
+    private static String headerOf(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+    }
+
+    private boolean isTokenValidForUser(String token, UserDetails userDetails) {
+        return jwtService.verifyToken(token)
+            .map(claims -> jwtService.isTokenValidForUser(claims, userDetails))
+            .orElse(false);
+    }
+
+    private long timerCount(String name, String outcome) {
+        return meterRegistry.get(name).tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.paulcera.bentabox.security.exception.LoginCapacityExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LoginExecutorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginExecutor loginExecutor = new LoginExecutor(1, 1, Duration.ofSeconds(2), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        loginExecutor.shutdown();
+    }
+
+    @Test
+    void submit_freeCapacity_completesWithResult() throws Exception {
+        CompletableFuture<String> result = loginExecutor.submit(() -> "token");
+
+        assertEquals("token", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("login.executor.wait").timer().count());
+    }
+
+    @Test
+    void submit_poolAndQueueFull_rejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = loginExecutor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = loginExecutor.submit(() -> "queued");
+
+        LoginCapacityExceededException thrown = assertThrows(LoginCapacityExceededException.class,
+            () -> loginExecutor.submit(() -> "rejected"));
+
+        assertEquals(Duration.ofSeconds(2), thrown.getRetryAfter());
+        assertEquals(1, loginExecutor.queueSize());
+        assertEquals(1.0, meterRegistry.get("login.executor.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("executor.queued").tag("name", "login").gauge().value());
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void constructor_unpinned_sizesPoolFromProcessors() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LoginExecutor sized = new LoginExecutor(0, 0, Duration.ofSeconds(1), registry);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        try {
+            assertEquals(processors, registry.get("executor.pool.max").tag("name", "login").gauge().value());
+            assertEquals(processors * LoginExecutor.QUEUE_PER_THREAD,
+                registry.get("executor.queue.remaining").tag("name", "login").gauge().value());
+        } finally {
+            sized.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.paulcera.bentabox.security.exception.LoginRateLimitedException;
+import com.paulcera.bentabox.security.util.StripedTokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void checkAttempt_usernameExhausted_rejectsAnyCase() {
+        LoginRateLimiter limiter = limiter(true, 10, 2);
+        limiter.checkAttempt("joe", "10.0.0.1");
+        limiter.checkAttempt("JOE", "10.0.0.2");
+
+        LoginRateLimitedException thrown = assertThrows(LoginRateLimitedException.class,
+            () -> limiter.checkAttempt("Joe", "10.0.0.3"));
+
+        assertEquals(Duration.ofMinutes(1), thrown.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("login.rate-limited").tag("bucket", "username").counter().count());
+        assertDoesNotThrow(() -> limiter.checkAttempt("admin", "10.0.0.3"));
+    }
+
+    @Test
+    void checkAttempt_addressExhausted_rejectsOtherUsernames() {
+        LoginRateLimiter limiter = limiter(true, 2, 10);
+        limiter.checkAttempt("joe", "10.0.0.1");
+        limiter.checkAttempt("admin", "10.0.0.1");
+
+        assertThrows(LoginRateLimitedException.class, () -> limiter.checkAttempt("someone", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("login.rate-limited").tag("bucket", "address").counter().count());
+    }
+
+    @Test
+    void checkAttempt_addressBucketOff_limitsByUsernameOnly() {
+        LoginRateLimiter limiter = new LoginRateLimiter(true, null,
+            new StripedTokenBucket(64, 2, Duration.ofMinutes(1), clock::get), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            String username = "user" + i;
+            assertDoesNotThrow(() -> limiter.checkAttempt(username, "10.0.0.1"));
+        }
+        assertEquals(0.0, meterRegistry.get("login.rate-limited").tag("bucket", "address").counter().count());
+    }
+
+    @Test
+    void checkAttempt_disabled_neverRejects() {
+        LoginRateLimiter limiter = limiter(false, 1, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertDoesNotThrow(() -> limiter.checkAttempt("joe", "10.0.0.1"));
+        }
+    }
+
+    private LoginRateLimiter limiter(boolean enabled, int addressCapacity, int usernameCapacity) {
+        return new LoginRateLimiter(enabled,
+            new StripedTokenBucket(64, addressCapacity, Duration.ofMinutes(1), clock::get),
+            new StripedTokenBucket(64, usernameCapacity, Duration.ofMinutes(1), clock::get), meterRegistry);
+    }
+
+}
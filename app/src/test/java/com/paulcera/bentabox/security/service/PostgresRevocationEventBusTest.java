@@ -0,0 +1,63 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.paulcera.bentabox.security.model.RevocationEvent;
+import com.paulcera.bentabox.security.model.RevocationEvent.Type;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresRevocationEventBusTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deliver_subscriberThrows_laterSubscribersAndEventsStillDelivered() throws Exception {
+        PostgresRevocationEventBus bus = new PostgresRevocationEventBus(jdbcTemplate, objectMapper, "url", "user",
+            "password");
+        List<RevocationEvent> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(event -> {
+            throw new IllegalStateException("subscriber failed");
+        });
+        bus.subscribe(received::add);
+        RevocationEvent first = event("first");
+        RevocationEvent second = event("second");
+
+        bus.deliver(objectMapper.writeValueAsString(first));
+        bus.deliver(objectMapper.writeValueAsString(second));
+
+        assertEquals(List.of(first, second), received);
+    }
+
+    @Test
+    void deliver_malformedPayload_laterEventsStillDelivered() throws Exception {
+        PostgresRevocationEventBus bus = new PostgresRevocationEventBus(jdbcTemplate, objectMapper, "url", "user",
+            "password");
+        List<RevocationEvent> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(received::add);
+        RevocationEvent event = event("session");
+
+        bus.deliver("{not json");
+        bus.deliver(objectMapper.writeValueAsString(event));
+
+        assertEquals(List.of(event), received);
+    }
+
+    private static RevocationEvent event(String key) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        return new RevocationEvent(Type.TOKEN_DENIED, key, now.plusSeconds(60), "other-node", now);
+    }
+}
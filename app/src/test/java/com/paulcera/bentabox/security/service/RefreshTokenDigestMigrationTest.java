@@ -0,0 +1,84 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.security.model.AppliedMigration;
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.model.RefreshTokenMother;
+import com.paulcera.bentabox.security.repository.AppliedMigrationRepository;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.util.JWTInput;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenDigestMigrationTest {
+
+    private RefreshTokenDigestMigration migration;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private AppliedMigrationRepository appliedMigrationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        migration = new RefreshTokenDigestMigration(refreshTokenRepository, appliedMigrationRepository,
+            new TransactionTemplate(transactionManager), 1);
+    }
+
+    @Test
+    void run_rawTokensStored_replacesThemWithDigests() {
+        String rawToken = JWTInput.expiredAdminToken();
+        RefreshToken refreshToken = RefreshTokenMother.token();
+        refreshToken.setTokenDigest(rawToken);
+        when(refreshTokenRepository.findWithoutDigest(anyInt(), any(Pageable.class)))
+            .thenReturn(List.of(refreshToken))
+            .thenReturn(List.of());
+
+        migration.run(new DefaultApplicationArguments());
+
+        assertEquals(TokenDigest.of(rawToken), refreshToken.getTokenDigest());
+        verify(refreshTokenRepository, times(2)).saveAll(any());
+        verify(appliedMigrationRepository).save(any(AppliedMigration.class));
+    }
+
+    @Test
+    void run_alreadyApplied_skipsTableScan() {
+        when(appliedMigrationRepository.existsById(RefreshTokenDigestMigration.NAME)).thenReturn(true);
+
+        migration.run(new DefaultApplicationArguments());
+
+        verify(refreshTokenRepository, never()).findWithoutDigest(anyInt(), any(Pageable.class));
+        verify(appliedMigrationRepository, never()).save(any(AppliedMigration.class));
+    }
+
+    @Test
+    void run_nothingToMigrate_stopsAfterFirstBatch() {
+        when(refreshTokenRepository.findWithoutDigest(anyInt(), any(Pageable.class))).thenReturn(List.of());
+
+        migration.run(new DefaultApplicationArguments());
+
+        verify(refreshTokenRepository, times(1)).findWithoutDigest(anyInt(), any(Pageable.class));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+}
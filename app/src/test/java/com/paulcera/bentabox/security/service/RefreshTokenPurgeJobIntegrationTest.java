@@ -0,0 +1,63 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.paulcera.bentabox.BaseIntegrationTestController;
+import com.paulcera.bentabox.security.model.RefreshToken;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+@TestPropertySource(properties = {
+    "spring.application.security.refresh-token.purge.enabled=true",
+    "spring.application.security.refresh-token.purge.initial-delay=1h",
+    "spring.application.security.refresh-token.purge.batch-size=1",
+    "spring.application.security.refresh-token.purge.batch-pause=0ms"
+})
+@Sql(scripts = "/authentication-controller-dataset.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+class RefreshTokenPurgeJobIntegrationTest extends BaseIntegrationTestController {
+
+    @Autowired
+    private RefreshTokenPurgeJob refreshTokenPurgeJob;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private WebUserRepository webUserRepository;
+
+    @Test
+    void purge_expiredAndLongRevokedRows_deletesOnlyThose() {
+        refreshTokenRepository.deleteAll();
+        WebUser webUser = webUserRepository.findById(1)
+            .orElseThrow(() -> new IllegalStateException("Expected dataset should contain this web_user"));
+        Instant now = Instant.now();
+        refreshTokenRepository.saveAll(List.of(
+            token("active", webUser, now.plus(Duration.ofDays(1)), null),
+            token("recently-revoked", webUser, now.plus(Duration.ofDays(1)), now.minus(Duration.ofDays(1))),
+            token("expired", webUser, now.minus(Duration.ofDays(1)), null),
+            token("long-revoked", webUser, now.plus(Duration.ofDays(1)), now.minus(Duration.ofDays(60)))));
+
+        refreshTokenPurgeJob.purge();
+
+        assertEquals(List.of("active", "recently-revoked"), refreshTokenRepository.findAll().stream()
+            .map(RefreshToken::getTokenDigest)
+            .sorted()
+            .toList());
+    }
+
+    private static RefreshToken token(String digest, WebUser webUser, Instant expiryDate, Instant revokedDate) {
+        RefreshToken refreshToken = new RefreshToken(digest, "family", webUser, 0);
+        refreshToken.setExpiryDate(expiryDate);
+        refreshToken.setRevokedDate(revokedDate);
+        return refreshToken;
+    }
+}
@@ -0,0 +1,65 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPurgeJobTest {
+
+    private RefreshTokenPurgeJob purgeJob;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        purgeJob = new RefreshTokenPurgeJob(refreshTokenRepository, new TransactionTemplate(transactionManager), 2,
+            Duration.ZERO, Duration.ofDays(30), meterRegistry);
+    }
+
+    @Test
+    void purge_moreRowsThanBatchSize_deletesUntilBatchIsNotFull() {
+        when(refreshTokenRepository.deletePurgeableBatch(any(Instant.class), any(Instant.class), eq(2)))
+            .thenReturn(2, 2, 1);
+
+        purgeJob.purge();
+
+        verify(refreshTokenRepository, times(3)).deletePurgeableBatch(any(Instant.class), any(Instant.class), eq(2));
+        assertEquals(5.0, meterRegistry.get("refresh.tokens.purged").counter().count());
+        assertEquals(5.0, meterRegistry.get("refresh.tokens.purge.last").gauge().value());
+        assertEquals(1, meterRegistry.get("refresh.tokens.purge.duration").timer().count());
+    }
+
+    @Test
+    void purge_nothingToDelete_runsSingleBatch() {
+        when(refreshTokenRepository.deletePurgeableBatch(any(Instant.class), any(Instant.class), eq(2)))
+            .thenReturn(0);
+
+        purgeJob.purge();
+
+        verify(refreshTokenRepository, times(1)).deletePurgeableBatch(any(Instant.class), any(Instant.class), eq(2));
+        assertEquals(0.0, meterRegistry.get("refresh.tokens.purged").counter().count());
+    }
+}
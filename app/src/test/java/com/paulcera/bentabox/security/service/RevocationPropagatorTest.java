@@ -0,0 +1,108 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.security.model.UserPrincipalMother;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+@ExtendWith(MockitoExtension.class)
+class RevocationPropagatorTest {
+
+    @Mock
+    private WebUserRepository webUserRepository;
+
+    private final InProcessRevocationEventBus revocationEventBus = new InProcessRevocationEventBus();
+
+    private Node local;
+
+    private Node remote;
+
+    @BeforeEach
+    void setup() {
+        local = new Node();
+        remote = new Node();
+    }
+
+    @Test
+    void denyToken_publishedOnOneNode_appliedOnBoth() {
+        local.propagator.denyToken("token-id", Instant.now().plusSeconds(60));
+
+        TokenClaims claims = new TokenClaims("admin", Instant.now(), Instant.now().plusSeconds(60),
+            Map.of(TokenClaims.TOKEN_ID, "token-id"));
+        assertTrue(local.denylist.isDenied(claims));
+        assertTrue(remote.denylist.isDenied(claims));
+        assertEquals(0, local.meterRegistry.get("revocation.events.lag").timer().count());
+        assertEquals(1, remote.meterRegistry.get("revocation.events.lag").timer().count());
+    }
+
+    @Test
+    void moveWatermark_publishedOnOneNode_rejectsEarlierTokensOnOtherNode() {
+        Instant issuedAt = Instant.now().minusSeconds(60);
+
+        local.propagator.moveWatermark("admin", Instant.now());
+
+        assertTrue(remote.watermarks.isIssuedBeforeWatermark(
+            new TokenClaims("admin", issuedAt, issuedAt.plusSeconds(3600), Map.of())));
+    }
+
+    @Test
+    void principalChanged_publishedOnOneNode_evictsCachedPrincipalOnOtherNode() {
+        remote.cache.get("admin", username -> UserPrincipalMother.admin());
+
+        local.propagator.principalChanged("admin");
+
+        remote.cache.get("admin", username -> UserPrincipalMother.admin());
+        assertEquals(2, remote.cache.stats().missCount());
+    }
+
+    @Test
+    void denyToken_publishedOnOneNode_evictsVerifiedTokensOfSessionOnOtherNode() {
+        TokenClaims session = new TokenClaims("admin", Instant.now(), Instant.now().plusSeconds(60),
+            Map.of(TokenClaims.SESSION_ID, "session-id"));
+        TokenClaims other = new TokenClaims("admin", Instant.now(), Instant.now().plusSeconds(60),
+            Map.of(TokenClaims.SESSION_ID, "other-session-id"));
+        remote.verifiedTokens.get("session-token", token -> session);
+        remote.verifiedTokens.get("other-token", token -> other);
+
+        local.propagator.denyToken("session-id", Instant.now().plusSeconds(60));
+
+        assertEquals(1, remote.verifiedTokens.estimatedSize());
+        assertEquals(other, remote.verifiedTokens.get("other-token", token -> {
+            throw new AssertionError("Expected a cache hit");
+        }));
+    }
+
+    @Test
+    void moveWatermark_publishedOnOneNode_evictsVerifiedTokensOfUserOnOtherNode() {
+        remote.verifiedTokens.get("admin-token", token -> new TokenClaims("admin", Instant.now(),
+            Instant.now().plusSeconds(60), Map.of()));
+
+        local.propagator.moveWatermark("admin", Instant.now());
+
+        assertEquals(0, remote.verifiedTokens.estimatedSize());
+    }
+
+    private class Node {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final AccessTokenDenylist denylist = new AccessTokenDenylist(meterRegistry);
+        private final TokenWatermarkRegistry watermarks = new TokenWatermarkRegistry(webUserRepository);
+        private final UserPrincipalCache cache = new UserPrincipalCache(100, Duration.ofMinutes(5), meterRegistry);
+        private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(true, DataSize.ofMegabytes(1),
+            Duration.ofHours(1), meterRegistry);
+        private final RevocationPropagator propagator = new RevocationPropagator(revocationEventBus, denylist,
+            watermarks, cache, verifiedTokens, meterRegistry);
+    }
+}
@@ -0,0 +1,164 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.model.WebUserMother;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import com.paulcera.bentabox.security.util.FlightRecordings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private WebUserRepository webUserRepository;
+
+    @BeforeEach
+    void setup() {
+        userPrincipalCache = new UserPrincipalCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        userDetailsService = new UserDetailsServiceImpl(webUserRepository, userPrincipalCache);
+    }
+
+    @Test
+    void loadUserByUsername_notExistingWebUser_throwsException() {
+        String username = WebUserMother.admin().getUsername();
+        when(webUserRepository.findByUsername(username)).thenReturn(Optional.empty());
+
+        UsernameNotFoundException thrown = assertThrows(
+            UsernameNotFoundException.class,
+            () -> userDetailsService.loadUserByUsername(username),
+            "Expected loadUserByUsername() to throw UsernameNotFoundException, but it didn't"
+        );
+
+        assertEquals("No user found with username: " + username, thrown.getMessage());
+
+    }
+
+    @Test
+    void loadUserByUsername_existingWebUser_returnsUserPrincipal() {
+        WebUser user = WebUserMother.admin();
+        String username = user.getUsername();
+        when(webUserRepository.findByUsername(username)).thenReturn(Optional.of(user));
+
+        UserPrincipal result = (UserPrincipal) userDetailsService.loadUserByUsername(username);
+
+        assertNotNull(result);
+        assertEquals(user, result.webUser());
+    }
+
+    @Test
+    void loadUserByUsername_loadedTwice_queriesRepositoryOnce() {
+        WebUser user = WebUserMother.admin();
+        String username = user.getUsername();
+        when(webUserRepository.findByUsername(username)).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername(username);
+        UserPrincipal result = (UserPrincipal) userDetailsService.loadUserByUsername(username);
+
+        assertEquals(user, result.webUser());
+        verify(webUserRepository, times(1)).findByUsername(username);
+        assertEquals(1, userPrincipalCache.stats().hitCount());
+        assertEquals(1, userPrincipalCache.stats().missCount());
+    }
+
+    @Test
+    void loadUserByUsername_afterInvalidate_reloadsFromRepository() {
+        WebUser user = WebUserMother.admin();
+        String username = user.getUsername();
+        when(webUserRepository.findByUsername(username)).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername(username);
+        userPrincipalCache.invalidate(username);
+        userDetailsService.loadUserByUsername(username);
+
+        verify(webUserRepository, times(2)).findByUsername(username);
+    }
+
+    @Test
+    void loadUserByUsername_notExistingWebUser_isNotCached() {
+        String username = WebUserMother.admin().getUsername();
+        when(webUserRepository.findByUsername(username)).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(username));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(username));
+
+        verify(webUserRepository, times(2)).findByUsername(username);
+    }
+
+    @Test
+    void loadUserByUsername_loadedTwice_emitsOneUserLoadEvent() {
+        WebUser user = WebUserMother.admin();
+        String username = user.getUsername();
+        when(webUserRepository.findByUsername(username)).thenReturn(Optional.of(user));
+
+        List<RecordedEvent> events = FlightRecordings.record("com.paulcera.bentabox.UserLoad", () -> {
+            userDetailsService.loadUserByUsername(username);
+            userDetailsService.loadUserByUsername(username);
+        });
+
+        assertEquals(1, events.size());
+        assertEquals("valid", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    void loadUserByUsername_concurrentMisses_queriesRepositoryOnce() throws Exception {
+        WebUser user = WebUserMother.admin();
+        String username = user.getUsername();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(webUserRepository.findByUsername(username)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UserDetails>> results = new ArrayList<>();
+            results.add(executor.submit(() -> userDetailsService.loadUserByUsername(username)));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> userDetailsService.loadUserByUsername(username)));
+            }
+            releaseLoad.countDown();
+
+            for (Future<UserDetails> result : results) {
+                assertEquals(username, result.get(5, TimeUnit.SECONDS).getUsername());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(webUserRepository, times(1)).findByUsername(username);
+    }
+
+}
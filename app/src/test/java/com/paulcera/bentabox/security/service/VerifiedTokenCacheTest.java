@@ -0,0 +1,169 @@
+package com.paulcera.bentabox.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.paulcera.bentabox.jwt.JWTKeyRing;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.util.JWTInput;
+import com.paulcera.bentabox.security.util.UnitTestProps;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class VerifiedTokenCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(true, DataSize.ofMegabytes(1), Duration.ofHours(1),
+        meterRegistry);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void get_sameTokenTwice_verifiesOnce() {
+        TokenClaims claims = claimsExpiringAt(Instant.now().plusSeconds(60));
+
+        cache.get("token", counting(claims));
+        TokenClaims result = cache.get("token", counting(claims));
+
+        assertSame(claims, result);
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "verified-tokens").tag("result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void verify_signedToken_cachesVerifiedClaims() {
+        JWTKeyRing keyRing = JWTKeyRing.of(UnitTestProps.jwtSecretKey(), List.of());
+        String token = Jwts.builder()
+            .header().keyId(keyRing.getSigningKeyId()).and()
+            .subject("admin")
+            .expiration(Date.from(Instant.now().plusSeconds(60)))
+            .signWith(keyRing.getSigningKey())
+            .compact();
+
+        TokenClaims claims = cache.verify(token, new TokenVerifier(keyRing));
+
+        assertEquals("admin", claims.subject());
+        assertSame(claims, cache.verify(token, new TokenVerifier(keyRing)));
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void verify_expiredToken_throwsAndIsNotCached() {
+        TokenVerifier tokenVerifier = new TokenVerifier(JWTKeyRing.of(UnitTestProps.jwtSecretKey(), List.of()));
+
+        assertThrows(JwtException.class, () -> cache.verify(JWTInput.expiredAdminToken(), tokenVerifier));
+
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void get_rejectedToken_isNotCached() {
+        Function<String, TokenClaims> rejecting = token -> {
+            verifications.incrementAndGet();
+            throw new JwtException("bad signature");
+        };
+
+        assertThrows(JwtException.class, () -> cache.get("token", rejecting));
+        assertThrows(JwtException.class, () -> cache.get("token", rejecting));
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    void get_tokenOutlivingMaxTtl_expiresAtMaxTtl() throws InterruptedException {
+        VerifiedTokenCache shortLived = new VerifiedTokenCache(true, DataSize.ofMegabytes(1), Duration.ofMillis(20),
+            new SimpleMeterRegistry());
+        TokenClaims claims = claimsExpiringAt(Instant.now().plus(Duration.ofDays(365)));
+        shortLived.get("refresh-token", counting(claims));
+        Thread.sleep(50);
+
+        shortLived.get("refresh-token", counting(claims));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_tokenWithoutExpiry_isNotCached() {
+        TokenClaims claims = claimsExpiringAt(null);
+
+        cache.get("token", counting(claims));
+        cache.get("token", counting(claims));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_tokenPastItsExpiry_verifiesAgain() {
+        TokenClaims claims = claimsExpiringAt(Instant.now().minusSeconds(1));
+
+        cache.get("token", counting(claims));
+        cache.get("token", counting(claims));
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void get_beyondMaximumWeight_evictsDownToBudget() {
+        int entryWeight = VerifiedTokenCache.weigh("digest", claimsExpiringAt(Instant.now().plusSeconds(60)));
+        VerifiedTokenCache small = new VerifiedTokenCache(true, DataSize.ofBytes(10L * entryWeight),
+            Duration.ofHours(1), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 100; i++) {
+            small.get("token-" + i, counting(claimsExpiringAt(Instant.now().plusSeconds(60))));
+        }
+
+        small.cleanUp();
+        assertTrue(small.weightedSize() <= 10L * entryWeight, "weighted size " + small.weightedSize());
+    }
+
+    @Test
+    void get_disabled_alwaysVerifies() {
+        VerifiedTokenCache disabled = new VerifiedTokenCache(false, DataSize.ofMegabytes(1), Duration.ofHours(1),
+            new SimpleMeterRegistry());
+        TokenClaims claims = claimsExpiringAt(Instant.now().plusSeconds(60));
+
+        disabled.get("token", counting(claims));
+        disabled.get("token", counting(claims));
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, disabled.estimatedSize());
+    }
+
+    @Test
+    void weigh_countsEveryClaimAndAuthority() {
+        TokenClaims withoutAuthorities = new TokenClaims("admin", Instant.now(), Instant.now(), Map.of("sub", "admin"));
+        TokenClaims withAuthorities = new TokenClaims("admin", Instant.now(), Instant.now(),
+            Map.of("sub", "admin", TokenClaims.AUTHORITIES, List.of("ADMIN")));
+
+        assertEquals(VerifiedTokenCache.ENTRY_BYTES + VerifiedTokenCache.CLAIM_BYTES + 5,
+            VerifiedTokenCache.weigh("digest", withoutAuthorities));
+        assertEquals(VerifiedTokenCache.ENTRY_BYTES + 3 * VerifiedTokenCache.CLAIM_BYTES + 10,
+            VerifiedTokenCache.weigh("digest", withAuthorities));
+    }
+
+    private Function<String, TokenClaims> counting(TokenClaims claims) {
+        return token -> {
+            verifications.incrementAndGet();
+            return claims;
+        };
+    }
+
+    private static TokenClaims claimsExpiringAt(Instant expiration) {
+        return new TokenClaims("admin", Instant.now(), expiration, Map.of(TokenClaims.TOKEN_ID, "token-id"));
+    }
+}
@@ -1,8 +1,11 @@
 package com.paulcera.bentabox.security.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,6 +16,7 @@ import com.paulcera.bentabox.security.dto.WebUserView;
 import com.paulcera.bentabox.security.model.WebUser;
 import com.paulcera.bentabox.security.model.WebUserMother;
 import com.paulcera.bentabox.security.repository.WebUserRepository;
+import java.time.Instant;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -33,6 +37,9 @@ class WebUserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private RevocationPropagator revocationPropagator;
+
     private final ArgumentCaptor<WebUser> webUserCaptor = ArgumentCaptor.forClass(WebUser.class);
 
     @Test
@@ -49,6 +56,42 @@ class WebUserServiceTest {
         assertEquals(joe.getUsername(), result.getUsername());
         WebUser createdWebUser = webUserCaptor.getValue();
         assertEquals(joe.getUsername(), createdWebUser.getUsername());
+        verify(revocationPropagator, times(1)).principalChanged(joe.getUsername());
+    }
+
+    @Test
+    void revokeAllTokens_existingUser_movesWatermarkForward() {
+        Instant before = Instant.now();
+
+        webUserService.revokeAllTokens("joe");
+
+        ArgumentCaptor<Instant> watermarkCaptor = ArgumentCaptor.forClass(Instant.class);
+        verify(webUserRepository, times(1)).updateTokensValidAfter(eq("joe"), watermarkCaptor.capture());
+        assertFalse(watermarkCaptor.getValue().isBefore(before));
+        verify(revocationPropagator, times(1)).moveWatermark("joe", watermarkCaptor.getValue());
+    }
+
+    @Test
+    void upgradePasswordEncoding_outdatedHash_storesNewHash() {
+        WebUser joe = WebUserMother.joe();
+        when(passwordEncoder.upgradeEncoding(joe.getPassword())).thenReturn(true);
+        when(passwordEncoder.encode("raw-pass")).thenReturn("{bcrypt}new-hash");
+
+        webUserService.upgradePasswordEncoding(joe, "raw-pass");
+
+        verify(webUserRepository, times(1)).updatePassword(joe.getUsername(), "{bcrypt}new-hash");
+        verify(revocationPropagator, times(1)).principalChanged(joe.getUsername());
+    }
+
+    @Test
+    void upgradePasswordEncoding_currentHash_leavesPasswordAlone() {
+        WebUser joe = WebUserMother.joe();
+        when(passwordEncoder.upgradeEncoding(joe.getPassword())).thenReturn(false);
+
+        webUserService.upgradePasswordEncoding(joe, "raw-pass");
+
+        verify(webUserRepository, never()).updatePassword(any(), any());
+        verify(revocationPropagator, never()).principalChanged(any());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.paulcera.bentabox.security.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class AimdConcurrencyLimitTest {
+
+    private static final long THRESHOLD = 100;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AimdConcurrencyLimit concurrencyLimit = new AimdConcurrencyLimit(4, 2, 6, THRESHOLD, 0.5, clock::get);
+
+    @Test
+    void tryAcquire_limitReached_rejects() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimit.tryAcquire());
+        }
+
+        assertFalse(concurrencyLimit.tryAcquire());
+        assertEquals(4, concurrencyLimit.getInFlight());
+    }
+
+    @Test
+    void release_fastAndBusy_increasesLimitUpToMax() {
+        for (int round = 0; round < 5; round++) {
+            concurrencyLimit.tryAcquire();
+            concurrencyLimit.tryAcquire();
+            concurrencyLimit.tryAcquire();
+            concurrencyLimit.release(10, false);
+            concurrencyLimit.release(10, false);
+            concurrencyLimit.release(10, false);
+        }
+
+        assertEquals(6, concurrencyLimit.getLimit());
+        assertEquals(0, concurrencyLimit.getInFlight());
+    }
+
+    @Test
+    void release_fastButIdle_keepsLimit() {
+        concurrencyLimit.tryAcquire();
+
+        concurrencyLimit.release(10, false);
+
+        assertEquals(4, concurrencyLimit.getLimit());
+    }
+
+    @Test
+    void release_slowOrFailed_backsOffDownToMin() {
+        concurrencyLimit.tryAcquire();
+        concurrencyLimit.release(THRESHOLD + 1, false);
+        assertEquals(2, concurrencyLimit.getLimit());
+
+        concurrencyLimit.tryAcquire();
+        concurrencyLimit.release(10, true);
+        assertEquals(2, concurrencyLimit.getLimit());
+    }
+
+    @Test
+    void release_manySlowInOneWindow_backsOffOnce() {
+        AimdConcurrencyLimit wide = new AimdConcurrencyLimit(40, 2, 40, THRESHOLD, 0.5, clock::get);
+        for (int i = 0; i < 10; i++) {
+            wide.tryAcquire();
+        }
+
+        for (int i = 0; i < 10; i++) {
+            wide.release(THRESHOLD + 1, false);
+        }
+        assertEquals(20, wide.getLimit());
+
+        clock.addAndGet(THRESHOLD);
+        wide.tryAcquire();
+        wide.release(THRESHOLD + 1, false);
+        assertEquals(10, wide.getLimit());
+    }
+
+    @Test
+    void constructor_initialAboveMax_throwsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new AimdConcurrencyLimit(10, 1, 5, THRESHOLD, 0.9, clock::get));
+    }
+
+}
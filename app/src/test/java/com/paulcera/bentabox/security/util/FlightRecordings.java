@@ -0,0 +1,37 @@
+package com.paulcera.bentabox.security.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecordings {
+
+    /**
+     * Runs {@code action} inside a recording and returns the events of the given type it emitted. Application events
+     * are enabled by default, so the recording sees the others too; they are filtered out.
+     */
+    public static List<RecordedEvent> record(String eventName, Runnable action) {
+        try (Recording recording = new Recording()) {
+            recording.start();
+            action.run();
+            recording.stop();
+
+            Path file = Files.createTempFile("auth-events", ".jfr");
+            try {
+                recording.dump(file);
+                return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(eventName))
+                    .toList();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.paulcera.bentabox.security.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHashCalibratorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void calibrate_oneSlowSample_picksCostByMedian() {
+        int cost = PasswordHashCalibrator.calibrate(this::encoderWithSlowFirstHash, 1, 4, Duration.ofMillis(25),
+            clock::get);
+
+        assertEquals(2, cost);
+    }
+
+    @Test
+    void medianTimeToEncode_oneSlowSample_ignoresIt() {
+        Duration median = PasswordHashCalibrator.medianTimeToEncode(encoderWithSlowFirstHash(3), clock::get);
+
+        assertEquals(Duration.ofMillis(30), median);
+    }
+
+    /**
+     * Encoder whose hashes take {@code cost} times 10ms on the fake clock, except the first, which takes a second.
+     */
+    private PasswordEncoder encoderWithSlowFirstHash(int cost) {
+        AtomicLong hashes = new AtomicLong();
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                Duration took = hashes.getAndIncrement() == 0 ? Duration.ofSeconds(1) : Duration.ofMillis(cost * 10L);
+                clock.addAndGet(took.toNanos());
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.paulcera.bentabox.security.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class StripedTokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(-5_000_000_000L);
+    private final StripedTokenBucket bucket = new StripedTokenBucket(1024, 3, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void tryAcquire_withinCapacity_allowsBurst() {
+        assertEquals(0, bucket.tryAcquire("joe"));
+        assertEquals(0, bucket.tryAcquire("joe"));
+        assertEquals(0, bucket.tryAcquire("joe"));
+    }
+
+    @Test
+    void tryAcquire_capacitySpent_returnsTimeUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire("joe");
+        }
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+
+        assertEquals(Duration.ofSeconds(6).toNanos(), bucket.tryAcquire("joe"));
+        assertEquals(0, bucket.tryAcquire("admin"));
+    }
+
+    @Test
+    void tryAcquire_afterRefillPeriod_allowsOneMore() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire("joe");
+        }
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertEquals(0, bucket.tryAcquire("joe"));
+        assertEquals(Duration.ofSeconds(10).toNanos(), bucket.tryAcquire("joe"));
+    }
+
+    @Test
+    void stripes_notPowerOfTwo_roundedUp() {
+        assertEquals(1024, new StripedTokenBucket(1000, 1, Duration.ofSeconds(1), clock::get).stripes());
+    }
+
+    @Test
+    void constructor_zeroCapacity_throwsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new StripedTokenBucket(16, 0, Duration.ofSeconds(1), clock::get));
+    }
+
+}
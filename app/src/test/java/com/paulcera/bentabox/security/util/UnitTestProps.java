@@ -0,0 +1,48 @@
+package com.paulcera.bentabox.security.util;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+
+public class UnitTestProps {
+
+    public static String jwtSecretKey() {
+        return "c29tZSBzZWNyZXQgdGhhdCBpcyBhdCBsZWFzdCAyNTYgYml0yyBsb25n";
+    }
+
+    public static String rotatedJwtSecretKey() {
+        return "YW5vdGhlciBzZWNyZXQgdGhhdCBpcyBhbHNvIGF0IGxlYXN0IDI1NiBiaXRzIGxvbmc=";
+    }
+
+    public static long accessTokenExpiration() {
+        return 86400000L;
+    }
+
+    public static long refreshTokenExpiration() {
+        return 31536000000L;
+    }
+
+    public static Duration reuseGracePeriod() {
+        return Duration.ofSeconds(10);
+    }
+
+    public static KeyPair es256KeyPair() {
+        return generateKeyPair("EC", 256);
+    }
+
+    public static KeyPair ed25519KeyPair() {
+        return generateKeyPair("Ed25519", 255);
+    }
+
+    private static KeyPair generateKeyPair(String algorithm, int keySize) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+            generator.initialize(keySize);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
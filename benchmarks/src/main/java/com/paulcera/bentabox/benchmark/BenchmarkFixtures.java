@@ -0,0 +1,122 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.jwt.JWTKeyRing;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.model.FullName;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import com.paulcera.bentabox.security.service.RepositoryRefreshTokenWriter;
+import com.paulcera.bentabox.security.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Shared setup for the benchmarks.
+ * <p>
+ * Collaborators are plain stubs rather than Mockito mocks: a mock records every invocation it receives, which shows up
+ * in the allocation rate and grows the heap for as long as the benchmark runs.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET_KEY = "c29tZSBzZWNyZXQgdGhhdCBpcyBhdCBsZWFzdCAyNTYgYml0yyBsb25n";
+    static final long ACCESS_TOKEN_EXPIRATION = 86400000L;
+    static final long REFRESH_TOKEN_EXPIRATION = 31536000000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A key ring signing with the given JWS algorithm, {@code HS256} or {@code ES256}.
+     */
+    static JWTKeyRing keyRing(String algorithm) {
+        return switch (algorithm) {
+            case "HS256" -> JWTKeyRing.of(SECRET_KEY, List.of());
+            case "ES256" -> JWTKeyRing.of(es256KeyPair(), List.of());
+            default -> throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+        };
+    }
+
+    /**
+     * A {@link JWTServiceImpl} whose refresh token repository accepts and discards every write. The revocation
+     * propagator is left out since none of the benchmarked paths revoke anything. The verified token cache is off, so
+     * every verification checks the signature.
+     */
+    static JWTServiceImpl jwtService(TokenVerifier tokenVerifier) {
+        return jwtService(tokenVerifier, verifiedTokenCache(false));
+    }
+
+    static JWTServiceImpl jwtService(TokenVerifier tokenVerifier, VerifiedTokenCache verifiedTokenCache) {
+        RefreshTokenRepository refreshTokenRepository = noOpRepository(RefreshTokenRepository.class);
+        return new JWTServiceImpl(tokenVerifier, ACCESS_TOKEN_EXPIRATION, REFRESH_TOKEN_EXPIRATION,
+            Duration.ofSeconds(10), refreshTokenRepository, new RepositoryRefreshTokenWriter(refreshTokenRepository),
+            null, verifiedTokenCache, new SimpleMeterRegistry());
+    }
+
+    /**
+     * A {@link VerifiedTokenCache} with the default budget.
+     */
+    static VerifiedTokenCache verifiedTokenCache(boolean enabled) {
+        return new VerifiedTokenCache(enabled, DataSize.ofMegabytes(16),
+            Duration.ofMillis(ACCESS_TOKEN_EXPIRATION), new SimpleMeterRegistry());
+    }
+
+    static WebUser admin() {
+        WebUser webUser = new WebUser();
+        webUser.setId(1);
+        webUser.setUsername("admin");
+        webUser.setPassword("admin");
+        webUser.setFullName(new FullName("PB", "Admin"));
+        return webUser;
+    }
+
+    /**
+     * A repository that returns its first argument from {@code save} and an empty or zero result from everything else.
+     */
+    static <T> T noOpRepository(Class<T> repositoryType) {
+        Object repository = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+            (proxy, method, args) -> {
+                if (method.getName().equals("save")) {
+                    return args[0];
+                }
+                return emptyValueOf(method.getReturnType());
+            });
+        return repositoryType.cast(repository);
+    }
+
+    private static Object emptyValueOf(Class<?> type) {
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (type == List.class || type == Iterable.class) {
+            return List.of();
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static KeyPair es256KeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(256);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Verifying a token and reading its claims, and checking verified claims against a loaded user.
+ * {@code isTokenValidForUserFromClaims} is what the JWT filter does once the claims are verified;
+ * {@code verifyAndValidate} also pays for the verification, which the {@code VerifiedTokenCache} serves after the first
+ * call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimExtractionBenchmark {
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    private JWTServiceImpl jwtService;
+    private UserPrincipal userPrincipal;
+    private String accessToken;
+    private TokenClaims claims;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(new TokenVerifier(BenchmarkFixtures.keyRing(algorithm)));
+        userPrincipal = new UserPrincipal(BenchmarkFixtures.admin());
+        accessToken = jwtService.generateAccessToken(userPrincipal, "session-id");
+        claims = jwtService.verifyToken(accessToken).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<TokenClaims> verifyToken() {
+        return jwtService.verifyToken(accessToken);
+    }
+
+    @Benchmark
+    public boolean verifyAndValidate() {
+        return jwtService.verifyToken(accessToken)
+            .map(verified -> jwtService.isTokenValidForUser(verified, userPrincipal))
+            .orElse(false);
+    }
+
+    @Benchmark
+    public boolean isTokenValidForUserFromClaims() {
+        return jwtService.isTokenValidForUser(claims, userPrincipal);
+    }
+}
@@ -0,0 +1,131 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.BentaBoxPosApplication;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.filter.JWTFilter;
+import com.paulcera.bentabox.security.model.FullName;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.repository.WebUserRepository;
+import com.paulcera.bentabox.security.service.AccessTokenDenylist;
+import com.paulcera.bentabox.security.service.JWTService;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import com.paulcera.bentabox.security.service.TokenWatermarkRegistry;
+import com.paulcera.bentabox.security.service.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A bearer token request through the whole {@link JWTFilter}: token extraction, verification, the watermark and
+ * denylist checks, the user lookup and setting the authentication.
+ * <p>
+ * {@code userDetailsService} selects where the user comes from:
+ * <ul>
+ *     <li>{@code stub} returns a fixed principal and turns the verified token cache off, so the result is the cost of
+ *     the filter alone, signature check included;</li>
+ *     <li>{@code h2-cached} boots the application on an in-memory H2 database and goes through the real
+ *     {@code UserDetailsService}, hitting the principal cache;</li>
+ *     <li>{@code h2-uncached} does the same but empties the cache entry first, so every request queries H2.</li>
+ * </ul>
+ * The H2 variants run with the application's configuration, so their signature check is a verified token cache hit.
+ * The request and response are reused, so the numbers leave out building them, which the servlet container does
+ * anyway.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    private static final String USERNAME = "benchmark";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"stub", "h2-cached", "h2-uncached"})
+    private String userDetailsService;
+
+    private ConfigurableApplicationContext context;
+    private JWTFilter jwtFilter;
+    private UserPrincipalCache userPrincipalCache;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        String accessToken = userDetailsService.equals("stub") ? setUpStub() : setUpApplication();
+        request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+        response = new MockHttpServletResponse();
+    }
+
+    private String setUpStub() {
+        TokenVerifier tokenVerifier = new TokenVerifier(BenchmarkFixtures.keyRing("HS256"));
+        JWTServiceImpl jwtService = BenchmarkFixtures.jwtService(tokenVerifier);
+        UserPrincipal userPrincipal = new UserPrincipal(BenchmarkFixtures.admin());
+        jwtFilter = new JWTFilter(tokenVerifier, jwtService, username -> userPrincipal,
+            new TokenWatermarkRegistry(BenchmarkFixtures.noOpRepository(WebUserRepository.class)),
+            new AccessTokenDenylist(new SimpleMeterRegistry()), BenchmarkFixtures.verifiedTokenCache(false), new SimpleMeterRegistry());
+        return jwtService.generateAccessToken(userPrincipal);
+    }
+
+    private String setUpApplication() {
+        context = new SpringApplicationBuilder(BentaBoxPosApplication.class)
+            .profiles("benchmark")
+            .run();
+        jwtFilter = context.getBean(JWTFilter.class);
+        userPrincipalCache = context.getBean(UserPrincipalCache.class);
+
+        WebUser webUser = new WebUser();
+        webUser.setUsername(USERNAME);
+        webUser.setPassword(context.getBean(PasswordEncoder.class).encode(USERNAME));
+        webUser.setFullName(new FullName("Bench", "Mark"));
+        webUser = context.getBean(WebUserRepository.class).save(webUser);
+
+        return context.getBean(JWTService.class).generateAccessToken(new UserPrincipal(webUser));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void doFilter() throws ServletException, IOException {
+        if (userPrincipalCache != null && userDetailsService.equals("h2-uncached")) {
+            userPrincipalCache.invalidate(USERNAME);
+        }
+
+        try {
+            jwtFilter.doFilter(request, response, NO_OP_CHAIN);
+        } finally {
+            request.clearAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.model.WebUser;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Issuing access and refresh tokens. The refresh token benchmark includes hashing the token for storage but not the
+ * database write itself, which goes to a stub repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    private JWTServiceImpl jwtService;
+    private WebUser webUser;
+    private UserPrincipal userPrincipal;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(new TokenVerifier(BenchmarkFixtures.keyRing(algorithm)));
+        webUser = BenchmarkFixtures.admin();
+        userPrincipal = new UserPrincipal(webUser);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(userPrincipal, "session-id");
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(webUser);
+    }
+}
@@ -0,0 +1,41 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * {@link UserPrincipal#getAuthorities()}, which runs for every token issued and every request authenticated against a
+ * loaded user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    private UserPrincipal userPrincipal;
+
+    @Setup
+    public void setUp() {
+        userPrincipal = new UserPrincipal(BenchmarkFixtures.admin());
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userPrincipal.getAuthorities();
+    }
+}
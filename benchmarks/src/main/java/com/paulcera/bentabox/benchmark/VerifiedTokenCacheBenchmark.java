@@ -0,0 +1,67 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Verifying a token that is already in the verified token cache against verifying it from scratch, and the digest that
+ * the cache key costs on every call. The cache is shared by every request thread, so also run it with {@code -t} set to
+ * the number of cores.
+ * <p>
+ * The heap an entry retains is measured by {@link VerifiedTokenCacheFootprint} instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerifiedTokenCacheBenchmark {
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    private JWTServiceImpl cachingJwtService;
+    private JWTServiceImpl jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        TokenVerifier tokenVerifier = new TokenVerifier(BenchmarkFixtures.keyRing(algorithm));
+        cachingJwtService = BenchmarkFixtures.jwtService(tokenVerifier, BenchmarkFixtures.verifiedTokenCache(true));
+        jwtService = BenchmarkFixtures.jwtService(tokenVerifier);
+        accessToken = jwtService.generateAccessToken(new UserPrincipal(BenchmarkFixtures.admin()), "session-id");
+        cachingJwtService.verifyToken(accessToken).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<TokenClaims> hit() {
+        return cachingJwtService.verifyToken(accessToken);
+    }
+
+    @Benchmark
+    public Optional<TokenClaims> uncached() {
+        return jwtService.verifyToken(accessToken);
+    }
+
+    @Benchmark
+    public String digest() {
+        return TokenDigest.of(accessToken);
+    }
+}
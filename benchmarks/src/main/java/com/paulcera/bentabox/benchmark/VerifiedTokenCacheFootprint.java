@@ -0,0 +1,53 @@
+package com.paulcera.bentabox.benchmark;
+
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import com.paulcera.bentabox.security.model.UserPrincipal;
+import com.paulcera.bentabox.security.service.JWTServiceImpl;
+import com.paulcera.bentabox.security.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Retained heap per {@link VerifiedTokenCache} entry, which JMH has no way to report. Fills a cache with distinct
+ * access tokens, as issued at login, and compares the live heap after a full GC with the heap of the empty cache.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.paulcera.bentabox.benchmark.VerifiedTokenCacheFootprint [entries]
+ * </pre>
+ * Run it with a fixed heap, such as {@code -Xms1g -Xmx1g}, so that the collector does not resize it in between.
+ * The printed estimate is what the cache's weigher charges against {@code maximum-weight} for the same entries.
+ */
+public class VerifiedTokenCacheFootprint {
+
+    private static final int DEFAULT_ENTRIES = 100_000;
+
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENTRIES;
+        TokenVerifier tokenVerifier = new TokenVerifier(BenchmarkFixtures.keyRing("HS256"));
+        JWTServiceImpl jwtService = BenchmarkFixtures.jwtService(tokenVerifier);
+        UserPrincipal userPrincipal = new UserPrincipal(BenchmarkFixtures.admin());
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, DataSize.ofGigabytes(4),
+            Duration.ofMillis(BenchmarkFixtures.ACCESS_TOKEN_EXPIRATION), new SimpleMeterRegistry());
+
+        long empty = liveHeap();
+        for (int i = 0; i < entries; i++) {
+            String token = jwtService.generateAccessToken(userPrincipal, UUID.randomUUID().toString());
+            cache.get(token, t -> TokenClaims.from(tokenVerifier.parse(t)));
+        }
+        long filled = liveHeap();
+
+        System.out.printf("entries:            %d%n", cache.estimatedSize());
+        System.out.printf("retained per entry: %d bytes%n", (filled - empty) / cache.estimatedSize());
+        System.out.printf("weigher estimate:   %d bytes%n", cache.weightedSize() / cache.estimatedSize());
+    }
+
+    private static long liveHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
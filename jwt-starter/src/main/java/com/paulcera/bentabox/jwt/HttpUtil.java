@@ -1,4 +1,4 @@
-package com.paulcera.bentabox.security.util;
+package com.paulcera.bentabox.jwt;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
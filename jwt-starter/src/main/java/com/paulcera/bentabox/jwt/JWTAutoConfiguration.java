@@ -0,0 +1,74 @@
+package com.paulcera.bentabox.jwt;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Sets up token verification from {@code spring.application.security.jwt.*}.
+ * <p>
+ * The key ring is built from whichever keys are configured:
+ * <ul>
+ *     <li>With a {@code private-key}/{@code public-key} pair, tokens are signed with ES256 or EdDSA, depending on the
+ *     key type. The HMAC secrets are kept for verification only, so tokens issued before the switch keep working.</li>
+ *     <li>With only a {@code secret-key}, tokens are signed and verified with HMAC.</li>
+ *     <li>With only a {@code public-key}, the ring can verify but not sign. This is the setup for services that
+ *     consume tokens without issuing them.</li>
+ * </ul>
+ * Both beans back off when the application defines its own.
+ * <p>
+ * The ring is built once at startup; there is no runtime rotation, since a node that signed with a key the others had
+ * not loaded yet would issue tokens the rest of the cluster rejects. Keys are rotated in two rolling deploys instead:
+ * first add the new key to {@code previous-secret-keys} or {@code previous-public-keys} on every node, so all of them
+ * verify it, then make it the signing key and move the old one to the previous keys. Retire the old key once the
+ * longest-lived token it signed has expired.
+ */
+@AutoConfiguration
+public class JWTAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JWTKeyRing jwtKeyRing(@Value("${spring.application.security.jwt.secret-key:}") String secretKey,
+        @Value("${spring.application.security.jwt.previous-secret-keys:}") List<String> previousSecretKeys,
+        @Value("${spring.application.security.jwt.private-key:}") String privateKey,
+        @Value("${spring.application.security.jwt.public-key:}") String publicKey,
+        @Value("${spring.application.security.jwt.previous-public-keys:}") List<String> previousPublicKeys) {
+        List<String> previousSecrets = nonBlank(previousSecretKeys);
+        if (privateKey.isBlank() && !secretKey.isBlank()) {
+            return JWTKeyRing.of(secretKey, previousSecrets);
+        }
+
+        List<Key> previousKeys = new ArrayList<>();
+        if (!secretKey.isBlank()) {
+            previousKeys.add(JWTKeys.decodeSecretKey(secretKey));
+        }
+        previousSecrets.forEach(key -> previousKeys.add(JWTKeys.decodeSecretKey(key)));
+        nonBlank(previousPublicKeys).forEach(key -> previousKeys.add(JWTKeys.decodePublicKey(key)));
+
+        if (!privateKey.isBlank()) {
+            return JWTKeyRing.of(JWTKeys.decodeKeyPair(privateKey, publicKey), previousKeys);
+        }
+        if (!publicKey.isBlank()) {
+            previousKeys.add(0, JWTKeys.decodePublicKey(publicKey));
+            return JWTKeyRing.forVerification(previousKeys);
+        }
+        throw new IllegalStateException("No JWT key configured, set spring.application.security.jwt.secret-key "
+            + "or spring.application.security.jwt.public-key");
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenVerifier tokenVerifier(JWTKeyRing jwtKeyRing) {
+        return new TokenVerifier(jwtKeyRing);
+    }
+
+    private static List<String> nonBlank(List<String> keys) {
+        return keys.stream()
+            .filter(key -> !key.isBlank())
+            .toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.paulcera.bentabox.jwt;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.SecretKey;
+
+/**
+ * Immutable set of keys used to sign and verify tokens.
+ * <p>
+ * Tokens are signed with the current key and carry its id in the {@code kid} header. The signing key is either an HMAC
+ * secret or the private half of an EC (ES256) or Ed25519 (EdDSA) key pair, and the algorithm follows from its type.
+ * Retired keys stay in the ring so that tokens signed before a rotation keep verifying until they expire. Key ids are
+ * derived from the key material, so every node configured with the same keys agrees on them.
+ */
+public final class JWTKeyRing {
+
+    private final String signingKeyId;
+    private final Key signingKey;
+    private final Map<String, Key> verificationKeys;
+
+    private JWTKeyRing(String signingKeyId, Key signingKey, Map<String, Key> verificationKeys) {
+        this.signingKeyId = signingKeyId;
+        this.signingKey = signingKey;
+        this.verificationKeys = Collections.unmodifiableMap(verificationKeys);
+    }
+
+    public static JWTKeyRing of(String currentSecretKey, List<String> previousSecretKeys) {
+        SecretKey signingKey = JWTKeys.decodeSecretKey(currentSecretKey);
+
+        return of(keyIdOf(signingKey), signingKey, signingKey, previousSecretKeys.stream()
+            .map(JWTKeys::decodeSecretKey)
+            .map(Key.class::cast)
+            .toList());
+    }
+
+    /**
+     * Signs with the private key of the pair. The previous keys may be HMAC secrets or public keys, which lets tokens
+     * signed before a switch to asymmetric signing keep verifying.
+     */
+    public static JWTKeyRing of(KeyPair signingKeyPair, List<? extends Key> previousKeys) {
+        return of(keyIdOf(signingKeyPair.getPublic()), signingKeyPair.getPrivate(), signingKeyPair.getPublic(),
+            previousKeys);
+    }
+
+    /**
+     * A ring that verifies with the given keys but cannot sign, for services that only consume tokens. The first key
+     * is the one tokens without a {@code kid} header are checked against.
+     */
+    public static JWTKeyRing forVerification(List<? extends Key> keys) {
+        Key currentKey = keys.get(0);
+
+        return of(keyIdOf(currentKey), null, currentKey, keys);
+    }
+
+    private static JWTKeyRing of(String signingKeyId, Key signingKey, Key verificationKey,
+        List<? extends Key> previousKeys) {
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        verificationKeys.put(signingKeyId, verificationKey);
+        for (Key previousKey : previousKeys) {
+            verificationKeys.putIfAbsent(keyIdOf(previousKey), previousKey);
+        }
+
+        return new JWTKeyRing(signingKeyId, signingKey, verificationKeys);
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    /**
+     * @return the key to sign new tokens with, or {@code null} for a verification-only ring
+     */
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Tokens issued before key ids were introduced have no {@code kid} header and are checked against the current
+     * key. Unknown key ids resolve to {@code null}.
+     */
+    public Key getVerificationKey(String keyId) {
+        return verificationKeys.get(keyId != null ? keyId : signingKeyId);
+    }
+
+    /**
+     * Public keys of the ring by key id, current key first. HMAC secrets are never included.
+     */
+    public Map<String, PublicKey> getPublicKeys() {
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        verificationKeys.forEach((keyId, key) -> {
+            if (key instanceof PublicKey publicKey) {
+                publicKeys.put(keyId, publicKey);
+            }
+        });
+        return Collections.unmodifiableMap(publicKeys);
+    }
+
+    public int size() {
+        return verificationKeys.size();
+    }
+
+    private static String keyIdOf(Key key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.paulcera.bentabox.jwt;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.List;
+import javax.crypto.SecretKey;
+
+/**
+ * Decodes configured key material. Secrets are base64-encoded bytes, private keys base64-encoded PKCS#8 DER and public
+ * keys base64-encoded X.509 DER.
+ * <p>
+ * EC keys must be on P-256, the curve of ES256, which is what the key ring signs with and the JWKS endpoint publishes
+ * for EC keys. Keys on any other curve are rejected when they are loaded.
+ */
+public final class JWTKeys {
+
+    private static final List<String> ASYMMETRIC_ALGORITHMS = List.of("EC", "Ed25519");
+    private static final ECParameterSpec P256 = p256();
+
+    private JWTKeys() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    public static SecretKey decodeSecretKey(String secretKey) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    }
+
+    public static KeyPair decodeKeyPair(String privateKey, String publicKey) {
+        PublicKey decodedPublicKey = decodePublicKey(publicKey);
+        try {
+            PrivateKey decodedPrivateKey = KeyFactory.getInstance(decodedPublicKey.getAlgorithm())
+                .generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(privateKey)));
+            return new KeyPair(decodedPublicKey, decodedPrivateKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("JWT private key does not match the public key algorithm", e);
+        }
+    }
+
+    public static PublicKey decodePublicKey(String publicKey) {
+        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Decoders.BASE64.decode(publicKey));
+        for (String algorithm : ASYMMETRIC_ALGORITHMS) {
+            PublicKey decoded;
+            try {
+                decoded = KeyFactory.getInstance(algorithm).generatePublic(keySpec);
+            } catch (GeneralSecurityException e) {
+                // not a key of this algorithm, try the next one
+                continue;
+            }
+            if (decoded instanceof ECPublicKey ecKey && !isP256(ecKey.getParams())) {
+                throw new IllegalArgumentException("JWT EC public key is not on the P-256 curve required by ES256");
+            }
+            return decoded;
+        }
+        throw new IllegalArgumentException("JWT public key is neither an EC nor an Ed25519 key");
+    }
+
+    private static boolean isP256(ECParameterSpec params) {
+        return P256.getCurve().equals(params.getCurve()) && P256.getGenerator().equals(params.getGenerator())
+            && P256.getOrder().equals(params.getOrder()) && P256.getCofactor() == params.getCofactor();
+    }
+
+    private static ECParameterSpec p256() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 is not supported by this JVM", e);
+        }
+    }
+}
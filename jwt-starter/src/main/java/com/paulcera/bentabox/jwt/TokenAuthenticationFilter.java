@@ -0,0 +1,74 @@
+package com.paulcera.bentabox.jwt;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates requests carrying a valid bearer token.
+ * <p>
+ * By default the authentication is built from the verified claims alone: the principal is the {@link TokenClaims} and
+ * the authorities come from the {@code authorities} claim. Tokens without that claim are ignored. Subclasses override
+ * {@link #authenticate(TokenClaims, HttpServletRequest)} to apply their own checks or load the user. The filter is not
+ * registered automatically; add it to the security filter chain.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private final TokenVerifier tokenVerifier;
+
+    public TokenAuthenticationFilter(TokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String token = HttpUtil.extractAuthToken(request);
+
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            verify(token).ifPresent(claims -> authenticate(claims, request));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Verifies the bearer token. Subclasses may override it to observe rejected tokens, for example to count them.
+     */
+    protected Optional<TokenClaims> verify(String token) {
+        return tokenVerifier.verify(token);
+    }
+
+    protected void authenticate(TokenClaims claims, HttpServletRequest request) {
+        if (claims.subject() == null || claims.authorities() == null) {
+            return;
+        }
+
+        setAuthentication(claims, authoritiesOf(claims), request);
+    }
+
+    protected static List<SimpleGrantedAuthority> authoritiesOf(TokenClaims claims) {
+        return claims.authorities().stream()
+            .map(SimpleGrantedAuthority::new)
+            .toList();
+    }
+
+    protected void setAuthentication(Object principal, Collection<? extends GrantedAuthority> authorities,
+        HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            principal, null, authorities);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
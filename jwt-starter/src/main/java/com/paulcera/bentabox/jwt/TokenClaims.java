@@ -0,0 +1,72 @@
+package com.paulcera.bentabox.jwt;
+
+import io.jsonwebtoken.Claims;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claims of a token whose signature and expiry have already been verified. Produced once per request so that later
+ * checks never have to parse the token again.
+ */
+public record TokenClaims(
+    String subject,
+    Instant issuedAt,
+    Instant expiration,
+    Map<String, Object> claims
+) {
+
+    public static final String USER_ID = "uid";
+    public static final String AUTHORITIES = "authorities";
+    public static final String FAMILY_ID = "fid";
+    public static final String SESSION_ID = "sid";
+    public static final String TOKEN_ID = "jti";
+    /**
+     * {@code access} or {@code refresh}. Tokens issued before the claim was introduced do not carry it.
+     */
+    public static final String TOKEN_USE = "token_use";
+
+    /**
+     * Wraps claims that {@link TokenVerifier#parse(String)} has already verified.
+     */
+    public static TokenClaims from(Claims claims) {
+        return new TokenClaims(claims.getSubject(), toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()),
+            claims);
+    }
+
+    public <T> T get(String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    public String tokenId() {
+        return get(TOKEN_ID, String.class);
+    }
+
+    /**
+     * Refresh family the token belongs to. Access tokens carry it as {@code sid}, refresh tokens as {@code fid}.
+     */
+    public String sessionId() {
+        String sessionId = get(SESSION_ID, String.class);
+        return sessionId != null ? sessionId : get(FAMILY_ID, String.class);
+    }
+
+    public Integer userId() {
+        Number userId = get(USER_ID, Number.class);
+        return userId != null ? userId.intValue() : null;
+    }
+
+    public List<String> authorities() {
+        List<?> authorities = get(AUTHORITIES, List.class);
+        return authorities != null ? authorities.stream().map(String::valueOf).toList() : null;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && !expiration.isAfter(Instant.now());
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
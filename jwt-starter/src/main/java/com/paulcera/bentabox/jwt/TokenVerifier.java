@@ -0,0 +1,70 @@
+package com.paulcera.bentabox.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import java.security.Key;
+import java.util.Optional;
+
+/**
+ * Verifies tokens against the current {@link JWTKeyRing}.
+ * <p>
+ * The parser is built once and resolves the verification key from the {@code kid} header on every call.
+ */
+public class TokenVerifier {
+
+    private final JwtParser jwtParser;
+
+    private final JWTKeyRing keyRing;
+
+    public TokenVerifier(JWTKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.jwtParser = Jwts.parser()
+            .keyLocator(new KeyRingLocator())
+            .build();
+    }
+
+    /**
+     * Verifies the signature and expiry of the token and decodes its claims in a single pass.
+     *
+     * @return the verified claims, or empty when the token is missing, expired, malformed or signed with an unknown
+     * key
+     */
+    public Optional<TokenClaims> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(TokenClaims.from(parse(token)));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Like {@link #verify(String)}, but reports why a token was rejected.
+     *
+     * @throws JwtException when the token is expired, malformed or signed with an unknown key
+     */
+    public Claims parse(String token) {
+        return jwtParser
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+
+    public JWTKeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    private class KeyRingLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            return keyRing.getVerificationKey(header.getKeyId());
+        }
+    }
+}
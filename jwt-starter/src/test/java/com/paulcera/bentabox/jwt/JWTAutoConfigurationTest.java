@@ -0,0 +1,87 @@
+package com.paulcera.bentabox.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.jsonwebtoken.Jwts;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+class JWTAutoConfigurationTest {
+
+    private static final String SECRET_KEY = "c29tZSBzZWNyZXQgdGhhdCBpcyBhdCBsZWFzdCAyNTYgYml0yyBsb25n";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(JWTAutoConfiguration.class));
+
+    @Test
+    void secretKeyConfigured_verifiesTokensSignedWithIt() {
+        contextRunner
+            .withPropertyValues("spring.application.security.jwt.secret-key=" + SECRET_KEY)
+            .run(context -> {
+                TokenVerifier tokenVerifier = context.getBean(TokenVerifier.class);
+                String token = sign(JWTKeys.decodeSecretKey(SECRET_KEY), null);
+
+                assertThat(tokenVerifier.verify(token)).map(TokenClaims::subject).contains("admin");
+            });
+    }
+
+    @Test
+    void publicKeyOnly_buildsVerificationOnlyRing() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+
+        contextRunner
+            .withPropertyValues("spring.application.security.jwt.public-key=" + publicKey)
+            .run(context -> {
+                JWTKeyRing keyRing = context.getBean(JWTKeyRing.class);
+                String token = sign(keyPair.getPrivate(), keyRing.getSigningKeyId());
+
+                assertThat(keyRing.getSigningKey()).isNull();
+                assertThat(keyRing.getPublicKeys()).containsValue(keyPair.getPublic());
+                assertThat(context.getBean(TokenVerifier.class).verify(token)).isPresent();
+            });
+    }
+
+    @Test
+    void publicKeyOnOtherCurve_failsToStart() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(384);
+        String publicKey = Base64.getEncoder().encodeToString(generator.generateKeyPair().getPublic().getEncoded());
+
+        contextRunner
+            .withPropertyValues("spring.application.security.jwt.public-key=" + publicKey)
+            .run(context -> assertThat(context).getFailure().rootCause().hasMessageContaining("P-256"));
+    }
+
+    @Test
+    void noKeyConfigured_failsToStart() {
+        contextRunner.run(context -> assertThat(context).hasFailed());
+    }
+
+    @Test
+    void applicationDefinesKeyRing_backsOff() {
+        JWTKeyRing ownKeyRing = JWTKeyRing.of(SECRET_KEY, List.of());
+
+        contextRunner
+            .withBean(JWTKeyRing.class, () -> ownKeyRing)
+            .run(context -> assertThat(context.getBean(TokenVerifier.class).getKeyRing()).isSameAs(ownKeyRing));
+    }
+
+    private static String sign(Key key, String keyId) {
+        return Jwts.builder()
+            .header().keyId(keyId).and()
+            .subject("admin")
+            .expiration(new Date(System.currentTimeMillis() + 60000))
+            .signWith(key)
+            .compact();
+    }
+}
@@ -0,0 +1,80 @@
+package com.paulcera.bentabox.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.jsonwebtoken.Jwts;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class TokenAuthenticationFilterTest {
+
+    private static final String SECRET_KEY = "c29tZSBzZWNyZXQgdGhhdCBpcyBhdCBsZWFzdCAyNTYgYml0yyBsb25n";
+
+    private final JWTKeyRing keyRing = JWTKeyRing.of(SECRET_KEY, List.of());
+
+    private final TokenAuthenticationFilter filter = new TokenAuthenticationFilter(new TokenVerifier(keyRing));
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_tokenWithAuthorities_authenticatesFromClaims() throws Exception {
+        MockHttpServletRequest request = withBearerToken(sign(Map.of(TokenClaims.AUTHORITIES, List.of("USER")),
+            60000));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin", ((TokenClaims) authentication.getPrincipal()).subject());
+        assertEquals("USER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void doFilter_tokenWithoutAuthorities_leavesRequestUnauthenticated() throws Exception {
+        MockHttpServletRequest request = withBearerToken(sign(Map.of(), 60000));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_expiredToken_leavesRequestUnauthenticated() throws Exception {
+        MockHttpServletRequest request = withBearerToken(sign(Map.of(TokenClaims.AUTHORITIES, List.of("USER")),
+            -60000));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private String sign(Map<String, ?> claims, long expiresIn) {
+        return Jwts.builder()
+            .header().keyId(keyRing.getSigningKeyId()).and()
+            .claims(claims)
+            .subject("admin")
+            .expiration(new Date(System.currentTimeMillis() + expiresIn))
+            .signWith(keyRing.getSigningKey())
+            .compact();
+    }
+
+    private static MockHttpServletRequest withBearerToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return request;
+    }
+}
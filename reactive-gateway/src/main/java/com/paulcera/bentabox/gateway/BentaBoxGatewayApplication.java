@@ -0,0 +1,13 @@
+package com.paulcera.bentabox.gateway;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class BentaBoxGatewayApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(BentaBoxGatewayApplication.class, args);
+	}
+
+}
@@ -1,10 +1,11 @@
-package com.paulcera.bentabox.core.advice;
-
-
-import com.paulcera.bentabox.core.dto.ResponseMessage;
-import com.paulcera.bentabox.security.exception.AlreadyLoggedInException;
-import com.paulcera.bentabox.security.exception.InvalidRefreshTokenException;
-import com.paulcera.bentabox.security.exception.TokenNotFoundException;
+package com.paulcera.bentabox.gateway.core.advice;
+
+import com.paulcera.bentabox.gateway.core.dto.ResponseMessage;
+import com.paulcera.bentabox.gateway.security.exception.AlreadyLoggedInException;
+import com.paulcera.bentabox.gateway.security.exception.InvalidRefreshTokenException;
+import com.paulcera.bentabox.gateway.security.exception.LoginCapacityExceededException;
+import com.paulcera.bentabox.gateway.security.exception.TokenNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -30,6 +31,13 @@ public class DefaultControllerAdvice {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ResponseMessage(ex.getMessage()));
     }
 
+    @ExceptionHandler(LoginCapacityExceededException.class)
+    public ResponseEntity<ResponseMessage> serviceUnavailableExceptionHandler(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(new ResponseMessage(ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ResponseMessage> internalServerErrorExceptionHandler(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ResponseMessage("An unexpected error occurred."));
@@ -0,0 +1,45 @@
+package com.paulcera.bentabox.gateway.security.config;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class PasswordConfig {
+
+    private static final int QUEUE_PER_THREAD = 32;
+
+    /**
+     * Matches the hashes the main application writes: {@code {bcrypt}}, {@code {argon2}} and legacy unprefixed BCrypt.
+     * The gateway only verifies passwords, so the encoding parameters do not matter here.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+            Map.of("bcrypt", bcrypt, "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Bounded pool for password hashing, kept off the event loops. Tasks beyond the queue capacity are rejected. Unless
+     * pinned, the pool has one thread per available processor and queues {@value #QUEUE_PER_THREAD} tasks per thread.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordScheduler(
+        @Value("${spring.application.security.login-executor.threads:0}") int threads,
+        @Value("${spring.application.security.login-executor.queue-capacity:0}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Schedulers.newBoundedElastic(poolSize, queueCapacity > 0 ? queueCapacity : poolSize * QUEUE_PER_THREAD,
+            "password");
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.paulcera.bentabox.gateway.security.config;
+
+import com.paulcera.bentabox.gateway.security.filter.JWTWebFilter;
+import com.paulcera.bentabox.gateway.security.repository.WebUserRepository;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+@Configuration
+@EnableWebFluxSecurity
+public class SecurityConfig {
+
+    private final TokenVerifier tokenVerifier;
+    private final WebUserRepository webUserRepository;
+
+    @Autowired
+    public SecurityConfig(TokenVerifier tokenVerifier, WebUserRepository webUserRepository) {
+        this.tokenVerifier = tokenVerifier;
+        this.webUserRepository = webUserRepository;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .logout(ServerHttpSecurity.LogoutSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchange -> exchange
+                .pathMatchers("/api/auth/login").permitAll()
+                .anyExchange().authenticated())
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+            .addFilterAt(new JWTWebFilter(tokenVerifier, webUserRepository,
+                    ServerWebExchangeMatchers.pathMatchers("/api/auth/refresh", "/api/auth/logout")),
+                SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.paulcera.bentabox.gateway.security.controller;
+
+import com.paulcera.bentabox.gateway.core.dto.ResponseMessage;
+import com.paulcera.bentabox.gateway.security.dto.LoginRequest;
+import com.paulcera.bentabox.gateway.security.exception.AlreadyLoggedInException;
+import com.paulcera.bentabox.gateway.security.filter.JWTWebFilter;
+import com.paulcera.bentabox.gateway.security.model.WebUser;
+import com.paulcera.bentabox.gateway.security.service.AuthenticationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthenticationController {
+
+    private final AuthenticationService authenticationService;
+
+    @Autowired
+    public AuthenticationController(AuthenticationService authenticationService) {
+        this.authenticationService = authenticationService;
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<ResponseMessage>> login(@RequestBody LoginRequest loginRequest,
+        ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+            .flatMap(principal -> Mono.<ResponseEntity<ResponseMessage>>error(
+                new AlreadyLoggedInException("Already logged in.")))
+            .switchIfEmpty(Mono.defer(() -> authenticationService.authenticate(loginRequest)
+                .map(token -> ResponseEntity.ok(new ResponseMessage("Successfully logged in.", token)))));
+    }
+
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<ResponseMessage>> logout(ServerWebExchange exchange) {
+        return authenticationService.initiateLogout(JWTWebFilter.extractAuthToken(exchange))
+            .thenReturn(ResponseEntity.ok(new ResponseMessage("Successfully logged out.")));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<ResponseMessage>> refresh(@AuthenticationPrincipal WebUser webUser,
+        ServerWebExchange exchange) {
+        return authenticationService.issueNewToken(JWTWebFilter.extractAuthToken(exchange), webUser)
+            .map(token -> ResponseEntity.ok(new ResponseMessage("New token issued.", token)));
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.paulcera.bentabox.gateway.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginRequest {
+
+    private String username;
+
+    private String password;
+
+}
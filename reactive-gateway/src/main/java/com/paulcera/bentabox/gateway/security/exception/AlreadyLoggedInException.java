@@ -0,0 +1,9 @@
+package com.paulcera.bentabox.gateway.security.exception;
+
+public class AlreadyLoggedInException extends RuntimeException {
+
+    public AlreadyLoggedInException(String message) {
+        super(message);
+    }
+
+}
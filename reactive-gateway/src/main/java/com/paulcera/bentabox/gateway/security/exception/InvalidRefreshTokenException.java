@@ -0,0 +1,9 @@
+package com.paulcera.bentabox.gateway.security.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+
+}
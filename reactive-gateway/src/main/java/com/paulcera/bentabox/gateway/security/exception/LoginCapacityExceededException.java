@@ -0,0 +1,9 @@
+package com.paulcera.bentabox.gateway.security.exception;
+
+public class LoginCapacityExceededException extends RuntimeException {
+
+    public LoginCapacityExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
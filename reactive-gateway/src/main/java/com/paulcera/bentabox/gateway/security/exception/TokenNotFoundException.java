@@ -0,0 +1,9 @@
+package com.paulcera.bentabox.gateway.security.exception;
+
+public class TokenNotFoundException extends RuntimeException {
+
+    public TokenNotFoundException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.paulcera.bentabox.gateway.security.filter;
+
+import com.paulcera.bentabox.gateway.security.model.WebUser;
+import com.paulcera.bentabox.gateway.security.repository.WebUserRepository;
+import com.paulcera.bentabox.gateway.security.service.TokenService;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Reactive counterpart of the main application's {@code JWTFilter}.
+ * <p>
+ * A verified bearer token whose user still exists, and which was not issued before the user's
+ * {@code tokens_valid_after} watermark, authenticates the exchange with the {@link WebUser} as principal. Any other
+ * request continues unauthenticated and is left to the authorization rules.
+ * <p>
+ * Refresh tokens are only accepted on the exchanges matching {@code refreshTokenExchangeMatcher}, such as rotation and
+ * logout, so a leaked refresh token cannot be used as a year-long access token.
+ * <p>
+ * Not a bean on purpose: WebFlux would also register a {@link WebFilter} bean globally and run it twice.
+ */
+public class JWTWebFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final List<SimpleGrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
+
+    private final TokenVerifier tokenVerifier;
+    private final WebUserRepository webUserRepository;
+    private final ServerWebExchangeMatcher refreshTokenExchangeMatcher;
+
+    public JWTWebFilter(TokenVerifier tokenVerifier, WebUserRepository webUserRepository,
+        ServerWebExchangeMatcher refreshTokenExchangeMatcher) {
+        this.tokenVerifier = tokenVerifier;
+        this.webUserRepository = webUserRepository;
+        this.refreshTokenExchangeMatcher = refreshTokenExchangeMatcher;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String token = extractAuthToken(exchange);
+        TokenClaims claims = token != null ? tokenVerifier.verify(token).orElse(null) : null;
+        if (claims == null || claims.subject() == null || claims.isExpired()) {
+            return chain.filter(exchange);
+        }
+        if (TokenService.isRefreshToken(claims)) {
+            return refreshTokenExchangeMatcher.matches(exchange)
+                .flatMap(match -> match.isMatch() ? authenticate(claims, exchange, chain) : chain.filter(exchange));
+        }
+        return authenticate(claims, exchange, chain);
+    }
+
+    private Mono<Void> authenticate(TokenClaims claims, ServerWebExchange exchange, WebFilterChain chain) {
+        return webUserRepository.findByUsername(claims.subject())
+            .filter(webUser -> !isIssuedBeforeWatermark(claims, webUser))
+            .map(webUser -> ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(webUser, null, USER_AUTHORITIES)))
+            .defaultIfEmpty(Context.empty())
+            .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+
+    public static String extractAuthToken(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            return authHeader.substring(BEARER_PREFIX.length());
+        }
+        return null;
+    }
+
+    /**
+     * Compared at the second precision of {@code iat}, so a login in the same second as the watermark is accepted.
+     */
+    private static boolean isIssuedBeforeWatermark(TokenClaims claims, WebUser webUser) {
+        Instant watermark = webUser.getTokensValidAfter();
+        return watermark != null
+            && (claims.issuedAt() == null || claims.issuedAt().isBefore(watermark.truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.paulcera.bentabox.gateway.security.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Row of the {@code refresh_token} table, written in exactly the shape the main application writes it.
+ */
+@Table("refresh_token")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    private Integer id;
+
+    @Column("token")
+    private String tokenDigest;
+
+    private Instant expiryDate;
+
+    private Instant createdDate;
+
+    private Instant revokedDate;
+
+    private String familyId;
+
+    private Integer webUserId;
+
+    public RefreshToken(String tokenDigest, String familyId, Integer webUserId, long expiration) {
+        Instant now = Instant.now();
+        this.tokenDigest = tokenDigest;
+        this.familyId = familyId;
+        this.webUserId = webUserId;
+        this.expiryDate = now.plusMillis(expiration);
+        this.createdDate = now;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.paulcera.bentabox.gateway.security.model;
+
+import java.time.Instant;
+
+public record RefreshTokenStatus(Instant revokedDate, Instant expiryDate) {
+
+    public boolean isRevoked() {
+        return revokedDate != null;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.paulcera.bentabox.gateway.security.model;
+
+import java.time.Instant;
+
+/**
+ * Revocation the gateway announces to the servlet nodes. Serializes to the same JSON as the main application's
+ * {@code RevocationEvent}, which is what its {@code RevocationEventBus} reads from the channel.
+ *
+ * @param key         token or session id for {@link Type#TOKEN_DENIED}, username otherwise
+ * @param until       denylist expiry for {@link Type#TOKEN_DENIED}, the new watermark for {@link Type#WATERMARK_MOVED}
+ * @param origin      id of the node that published the event
+ * @param publishedAt when the event was published, used to measure propagation lag
+ */
+public record RevocationEvent(
+    Type type,
+    String key,
+    Instant until,
+    String origin,
+    Instant publishedAt
+) {
+
+    public enum Type {
+        TOKEN_DENIED,
+        WATERMARK_MOVED,
+        PRINCIPAL_CHANGED
+    }
+}
@@ -0,0 +1,32 @@
+package com.paulcera.bentabox.gateway.security.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read model of the {@code web_user} table owned by the main application.
+ */
+@Table("web_user")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebUser {
+
+    @Id
+    private Integer id;
+
+    private String username;
+
+    private String password;
+
+    private String firstName;
+
+    private String lastName;
+
+    private Instant tokensValidAfter;
+
+}
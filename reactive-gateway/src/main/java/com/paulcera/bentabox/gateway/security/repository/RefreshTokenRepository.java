@@ -0,0 +1,33 @@
+package com.paulcera.bentabox.gateway.security.repository;
+
+import com.paulcera.bentabox.gateway.security.model.RefreshToken;
+import com.paulcera.bentabox.gateway.security.model.RefreshTokenStatus;
+import java.time.Instant;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface RefreshTokenRepository extends R2dbcRepository<RefreshToken, Integer> {
+
+    Mono<Boolean> existsByTokenDigest(String tokenDigest);
+
+    @Query("SELECT revoked_date, expiry_date FROM refresh_token WHERE token = :tokenDigest")
+    Mono<RefreshTokenStatus> findStatusByTokenDigest(String tokenDigest);
+
+    @Modifying
+    @Query("UPDATE refresh_token SET revoked_date = :revokedDate WHERE token = :tokenDigest AND revoked_date IS NULL")
+    Mono<Integer> revokeByTokenDigest(String tokenDigest, Instant revokedDate);
+
+    @Modifying
+    @Query("UPDATE refresh_token SET revoked_date = :revokedDate "
+        + "WHERE token = :tokenDigest AND revoked_date IS NULL AND expiry_date > :revokedDate")
+    Mono<Integer> revokeActiveByTokenDigest(String tokenDigest, Instant revokedDate);
+
+    @Modifying
+    @Query("UPDATE refresh_token SET revoked_date = :revokedDate WHERE family_id = :familyId AND revoked_date IS NULL")
+    Mono<Integer> revokeFamily(String familyId, Instant revokedDate);
+
+}
@@ -0,0 +1,13 @@
+package com.paulcera.bentabox.gateway.security.repository;
+
+import com.paulcera.bentabox.gateway.security.model.WebUser;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface WebUserRepository extends R2dbcRepository<WebUser, Integer> {
+
+    Mono<WebUser> findByUsername(String username);
+
+}
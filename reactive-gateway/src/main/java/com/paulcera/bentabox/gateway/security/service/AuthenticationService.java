@@ -0,0 +1,87 @@
+package com.paulcera.bentabox.gateway.security.service;
+
+import com.paulcera.bentabox.gateway.security.dto.LoginRequest;
+import com.paulcera.bentabox.gateway.security.exception.LoginCapacityExceededException;
+import com.paulcera.bentabox.gateway.security.model.AuthenticationToken;
+import com.paulcera.bentabox.gateway.security.model.WebUser;
+import com.paulcera.bentabox.gateway.security.repository.WebUserRepository;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@Service
+public class AuthenticationService {
+
+    private static final String BAD_CREDENTIALS = "Bad credentials";
+
+    private final WebUserRepository webUserRepository;
+    private final TokenService tokenService;
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler passwordScheduler;
+    private final String unknownUserPassword;
+
+    @Autowired
+    public AuthenticationService(WebUserRepository webUserRepository, TokenService tokenService,
+        PasswordEncoder passwordEncoder, @Qualifier("passwordScheduler") Scheduler passwordScheduler) {
+        this.webUserRepository = webUserRepository;
+        this.tokenService = tokenService;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordScheduler = passwordScheduler;
+        this.unknownUserPassword = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Checks the credentials and issues a new access and refresh token pair. The password hash is checked on the
+     * bounded password scheduler, never on an event loop; when its queue is full the login fails with
+     * {@link LoginCapacityExceededException}. Unknown usernames are checked against a dummy hash so that they take as
+     * long as wrong passwords.
+     */
+    public Mono<AuthenticationToken> authenticate(LoginRequest loginRequest) {
+        return webUserRepository.findByUsername(loginRequest.getUsername())
+            .map(webUser -> new Candidate(webUser, webUser.getPassword()))
+            .defaultIfEmpty(new Candidate(null, unknownUserPassword))
+            .flatMap(candidate -> passwordMatches(loginRequest.getPassword(), candidate.passwordHash())
+                .filter(matches -> matches && candidate.webUser() != null)
+                .map(matches -> candidate.webUser()))
+            .switchIfEmpty(Mono.error(new BadCredentialsException(BAD_CREDENTIALS)))
+            .flatMap(this::issueTokens);
+    }
+
+    public Mono<AuthenticationToken> issueNewToken(String refreshToken, WebUser webUser) {
+        return tokenService.rotateRefreshToken(refreshToken, webUser)
+            .map(newRefreshToken -> {
+                String sessionId = tokenService.verifyToken(newRefreshToken)
+                    .map(claims -> claims.sessionId())
+                    .orElse(null);
+                return new AuthenticationToken(tokenService.generateAccessToken(webUser, sessionId), newRefreshToken);
+            });
+    }
+
+    public Mono<Void> initiateLogout(String refreshToken) {
+        return tokenService.invalidateToken(refreshToken);
+    }
+
+    private Mono<AuthenticationToken> issueTokens(WebUser webUser) {
+        String sessionId = UUID.randomUUID().toString();
+        String accessToken = tokenService.generateAccessToken(webUser, sessionId);
+
+        return tokenService.generateRefreshToken(webUser, sessionId)
+            .map(refreshToken -> new AuthenticationToken(accessToken, refreshToken));
+    }
+
+    private Mono<Boolean> passwordMatches(String rawPassword, String passwordHash) {
+        return Mono.fromCallable(() -> rawPassword != null && passwordEncoder.matches(rawPassword, passwordHash))
+            .subscribeOn(passwordScheduler)
+            .onErrorMap(RejectedExecutionException.class,
+                ex -> new LoginCapacityExceededException("Too many login attempts in progress, try again later.", ex));
+    }
+
+    private record Candidate(WebUser webUser, String passwordHash) {}
+
+}
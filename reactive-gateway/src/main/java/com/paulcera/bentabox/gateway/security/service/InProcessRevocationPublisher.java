@@ -0,0 +1,19 @@
+package com.paulcera.bentabox.gateway.security.service;
+
+import java.time.Instant;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publisher for a gateway deployed without servlet nodes, where nobody keeps revocations in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.revocation-bus.type", havingValue = "in-process")
+public class InProcessRevocationPublisher implements RevocationPublisher {
+
+    @Override
+    public Mono<Void> denyToken(String id, Instant until) {
+        return Mono.empty();
+    }
+}
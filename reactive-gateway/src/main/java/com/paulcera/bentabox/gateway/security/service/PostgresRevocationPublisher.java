@@ -0,0 +1,56 @@
+package com.paulcera.bentabox.gateway.security.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paulcera.bentabox.gateway.security.model.RevocationEvent;
+import com.paulcera.bentabox.gateway.security.model.RevocationEvent.Type;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes on the Postgres {@code NOTIFY} channel the main application's {@code PostgresRevocationEventBus} listens
+ * on.
+ * <p>
+ * The notification is sent on the caller's connection, so one raised inside a transaction is only delivered if that
+ * transaction commits.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.application.security.revocation-bus.type", havingValue = "postgres",
+    matchIfMissing = true)
+public class PostgresRevocationPublisher implements RevocationPublisher {
+
+    private static final String CHANNEL = "token_revocations";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PostgresRevocationPublisher(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> denyToken(String id, Instant until) {
+        if (id == null) {
+            return Mono.empty();
+        }
+
+        RevocationEvent event = new RevocationEvent(Type.TOKEN_DENIED, id, until, nodeId, Instant.now());
+        try {
+            return databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+                .bind("channel", CHANNEL)
+                .bind("payload", objectMapper.writeValueAsString(event))
+                .then();
+        } catch (JsonProcessingException e) {
+            return Mono.error(new IllegalStateException("Could not serialize revocation event", e));
+        }
+    }
+}
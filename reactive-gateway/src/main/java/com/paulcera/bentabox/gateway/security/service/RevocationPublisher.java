@@ -0,0 +1,17 @@
+package com.paulcera.bentabox.gateway.security.service;
+
+import java.time.Instant;
+import reactor.core.publisher.Mono;
+
+/**
+ * Announces revocations made through the gateway to the servlet nodes, which keep denied tokens in memory. The gateway
+ * itself holds no revocation state, so it only publishes and never subscribes.
+ */
+public interface RevocationPublisher {
+
+    /**
+     * Asks every node to reject access tokens whose token or session id is {@code id} until {@code until}. Does nothing
+     * for a {@code null} id.
+     */
+    Mono<Void> denyToken(String id, Instant until);
+}
@@ -0,0 +1,175 @@
+package com.paulcera.bentabox.gateway.security.service;
+
+import com.paulcera.bentabox.gateway.security.exception.InvalidRefreshTokenException;
+import com.paulcera.bentabox.gateway.security.exception.TokenNotFoundException;
+import com.paulcera.bentabox.gateway.security.model.RefreshToken;
+import com.paulcera.bentabox.gateway.security.model.RefreshTokenStatus;
+import com.paulcera.bentabox.gateway.security.model.WebUser;
+import com.paulcera.bentabox.gateway.security.repository.RefreshTokenRepository;
+import com.paulcera.bentabox.jwt.JWTKeyRing;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenDigest;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import io.jsonwebtoken.Jwts;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the main application's {@code JWTServiceImpl}.
+ * <p>
+ * Tokens carry the same claims and are signed with the same key ring, and refresh tokens are stored, rotated and
+ * revoked in the same {@code refresh_token} table with the same rules, so both runtimes can serve the same terminals.
+ * Signing and verification are CPU-only and run on the calling thread; only database access is asynchronous.
+ * <p>
+ * Logouts and replayed refresh tokens also deny the session's access tokens on the servlet nodes through the
+ * {@link RevocationPublisher}, as the main application does, so a session ended here is ended everywhere.
+ */
+@Service
+public class TokenService {
+
+    public static final List<String> USER_AUTHORITIES = List.of("USER");
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
+    private final TokenVerifier tokenVerifier;
+    private final long accessTokenExpiration;
+    private final long refreshTokenExpiration;
+    private final Duration reuseGracePeriod;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevocationPublisher revocationPublisher;
+
+    @Autowired
+    public TokenService(TokenVerifier tokenVerifier,
+        @Value("${spring.application.security.jwt.access-token-expiration}") long accessTokenExpiration,
+        @Value("${spring.application.security.jwt.refresh-token-expiration}") long refreshTokenExpiration,
+        @Value("${spring.application.security.refresh-token.reuse-grace-period:10s}") Duration reuseGracePeriod,
+        RefreshTokenRepository refreshTokenRepository, RevocationPublisher revocationPublisher) {
+        this.tokenVerifier = tokenVerifier;
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.reuseGracePeriod = reuseGracePeriod;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationPublisher = revocationPublisher;
+    }
+
+    public String generateAccessToken(WebUser webUser, String sessionId) {
+        return generateToken(webUser.getUsername(), Map.of(TokenClaims.TOKEN_USE, ACCESS_TOKEN,
+            TokenClaims.USER_ID, webUser.getId(), TokenClaims.AUTHORITIES, USER_AUTHORITIES,
+            TokenClaims.SESSION_ID, sessionId), accessTokenExpiration);
+    }
+
+    public Mono<String> generateRefreshToken(WebUser webUser, String familyId) {
+        String token = generateToken(webUser.getUsername(),
+            Map.of(TokenClaims.TOKEN_USE, REFRESH_TOKEN, TokenClaims.FAMILY_ID, familyId), refreshTokenExpiration);
+
+        return refreshTokenRepository
+            .save(new RefreshToken(TokenDigest.of(token), familyId, webUser.getId(), refreshTokenExpiration))
+            .thenReturn(token);
+    }
+
+    /**
+     * Revokes the presented refresh token and issues its successor in the same family, in one transaction. A token
+     * rotated longer ago than the reuse grace period is treated as replayed and revokes its whole family.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Mono<String> rotateRefreshToken(String refreshToken, WebUser webUser) {
+        Optional<TokenClaims> claims = tokenVerifier.verify(refreshToken);
+        if (claims.isEmpty()) {
+            return Mono.error(new InvalidRefreshTokenException("RefreshToken is not valid."));
+        }
+        String familyId = claims.get().get(TokenClaims.FAMILY_ID, String.class);
+        String tokenDigest = TokenDigest.of(refreshToken);
+        Instant now = Instant.now();
+
+        return refreshTokenRepository.revokeActiveByTokenDigest(tokenDigest, now)
+            .flatMap(revoked -> revoked == 1
+                ? generateRefreshToken(webUser, familyId != null ? familyId : UUID.randomUUID().toString())
+                : revokeFamilyIfReplayed(tokenDigest, familyId, now)
+                    .then(Mono.error(new InvalidRefreshTokenException("RefreshToken is not valid."))));
+    }
+
+    private Mono<Integer> revokeFamilyIfReplayed(String tokenDigest, String familyId, Instant now) {
+        if (familyId == null) {
+            return Mono.empty();
+        }
+
+        return refreshTokenRepository.findStatusByTokenDigest(tokenDigest)
+            .filter(RefreshTokenStatus::isRevoked)
+            .filter(status -> status.revokedDate().isBefore(now.minus(reuseGracePeriod)))
+            .flatMap(status -> refreshTokenRepository.revokeFamily(familyId, now))
+            .flatMap(revoked -> revocationPublisher.denyToken(familyId, now.plusMillis(accessTokenExpiration))
+                .thenReturn(revoked));
+    }
+
+    @Transactional
+    public Mono<Void> invalidateToken(String token) {
+        String tokenDigest = TokenDigest.of(token);
+        Instant now = Instant.now();
+
+        return refreshTokenRepository.revokeByTokenDigest(tokenDigest, now)
+            .filter(revoked -> revoked == 0)
+            .flatMap(revoked -> refreshTokenRepository.existsByTokenDigest(tokenDigest))
+            .filter(exists -> !exists)
+            .flatMap(exists -> Mono.error(new TokenNotFoundException("No RefreshToken found with value: " + token)))
+            .then(Mono.defer(() -> denyAccessTokens(token, now)));
+    }
+
+    /**
+     * The refresh token itself is revoked in the database; the denials only have to outlive the access tokens.
+     */
+    private Mono<Void> denyAccessTokens(String refreshToken, Instant now) {
+        Optional<TokenClaims> claims = tokenVerifier.verify(refreshToken);
+        if (claims.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Instant accessTokensExpire = now.plusMillis(accessTokenExpiration);
+        Instant tokenExpires = claims.get().expiration();
+        return revocationPublisher.denyToken(claims.get().tokenId(),
+                tokenExpires != null && tokenExpires.isBefore(accessTokensExpire) ? tokenExpires : accessTokensExpire)
+            .then(revocationPublisher.denyToken(claims.get().sessionId(), accessTokensExpire));
+    }
+
+    /**
+     * Whether the claims belong to a refresh token. Tokens issued before {@code token_use} was added are classified by
+     * their refresh family id, which only refresh tokens carry.
+     */
+    public static boolean isRefreshToken(TokenClaims claims) {
+        String tokenUse = claims.get(TokenClaims.TOKEN_USE, String.class);
+        if (tokenUse != null) {
+            return REFRESH_TOKEN.equals(tokenUse);
+        }
+        return claims.get(TokenClaims.FAMILY_ID, String.class) != null;
+    }
+
+    public Optional<TokenClaims> verifyToken(String token) {
+        return tokenVerifier.verify(token);
+    }
+
+    private String generateToken(String username, Map<String, ?> claims, long expiration) {
+        JWTKeyRing currentKeyRing = tokenVerifier.getKeyRing();
+        long now = System.currentTimeMillis();
+
+        return Jwts
+            .builder()
+            .header().keyId(currentKeyRing.getSigningKeyId()).and()
+            .claims(claims)
+            .id(UUID.randomUUID().toString())
+            .subject(username)
+            .issuedAt(new Date(now))
+            .expiration(new Date(now + expiration))
+            .signWith(currentKeyRing.getSigningKey())
+            .compact();
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.paulcera.bentabox.gateway;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+public abstract class BaseIntegrationTestController {
+
+    @Autowired
+    protected WebTestClient webTestClient;
+
+    @Autowired
+    protected ConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void loadDataset() {
+        new ResourceDatabasePopulator(new ClassPathResource("cleanup.sql"),
+            new ClassPathResource("authentication-controller-dataset.sql"))
+            .populate(connectionFactory)
+            .block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        new ResourceDatabasePopulator(new ClassPathResource("cleanup.sql"))
+            .populate(connectionFactory)
+            .block();
+    }
+}
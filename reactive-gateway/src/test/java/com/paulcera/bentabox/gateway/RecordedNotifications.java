@@ -0,0 +1,32 @@
+package com.paulcera.bentabox.gateway;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stands in for Postgres {@code pg_notify} in the H2 test database, where {@code schema.sql} registers
+ * {@link #notify(String, String)} under that name.
+ */
+public final class RecordedNotifications {
+
+    private static final List<Notification> NOTIFICATIONS = new CopyOnWriteArrayList<>();
+
+    private RecordedNotifications() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    public static void notify(String channel, String payload) {
+        NOTIFICATIONS.add(new Notification(channel, payload));
+    }
+
+    public static List<Notification> all() {
+        return List.copyOf(NOTIFICATIONS);
+    }
+
+    public static void clear() {
+        NOTIFICATIONS.clear();
+    }
+
+    public record Notification(String channel, String payload) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.paulcera.bentabox.gateway.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Measures heap and thread cost per open client connection, to compare the reactive stack with the servlet application.
+ * <p>
+ * Opens {@code loadtest.connections} sockets (default 2000), each with a request whose headers are not finished yet,
+ * so the server has to keep per-connection state. The heap is compared after forced garbage collections before and
+ * after, in the same JVM; the small client-side socket objects are included in both runs alike. Run with
+ * {@code mvn -Pload-test test -Dtest=ConnectionMemoryLoadTest}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ConnectionMemoryLoadTest {
+
+    private final int connections = Integer.getInteger("loadtest.connections", 2000);
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void openConnections_reportsHeapAndThreadsPerConnection() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = settledHeap(memory);
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        List<Socket> sockets = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                Socket socket = new Socket("localhost", port);
+                OutputStream out = socket.getOutputStream();
+                out.write(("POST /api/auth/login HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                sockets.add(socket);
+            }
+            Thread.sleep(2000);
+
+            long heapAfter = settledHeap(memory);
+            int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+            System.out.printf("stack=reactive connections=%d heapPerConnection=%d bytes threadsAdded=%d%n", connections,
+                (heapAfter - heapBefore) / connections, threadsAfter - threadsBefore);
+            assertTrue(sockets.stream().noneMatch(Socket::isClosed));
+        } finally {
+            for (Socket socket : sockets) {
+                close(socket);
+            }
+        }
+    }
+
+    private static long settledHeap(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // the measurement is done, a failed close does not matter
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.paulcera.bentabox.gateway.security.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.paulcera.bentabox.gateway.BaseIntegrationTestController;
+import com.paulcera.bentabox.gateway.RecordedNotifications;
+import com.paulcera.bentabox.gateway.RecordedNotifications.Notification;
+import com.paulcera.bentabox.gateway.security.dto.LoginRequest;
+import com.paulcera.bentabox.gateway.security.model.RevocationEvent;
+import com.paulcera.bentabox.gateway.security.model.RevocationEvent.Type;
+import com.paulcera.bentabox.jwt.TokenClaims;
+import com.paulcera.bentabox.jwt.TokenVerifier;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient.ResponseSpec;
+
+class AuthenticationControllerIntegrationTest extends BaseIntegrationTestController {
+
+    @Autowired
+    private TokenVerifier tokenVerifier;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void login_validCredentials_issuesTokensInTheMainApplicationFormat() {
+        String response = login(new LoginRequest("admin", "admin"));
+
+        TokenClaims access = tokenVerifier.verify(JsonPath.read(response, "$.payload.access_token")).orElseThrow();
+        TokenClaims refresh = tokenVerifier.verify(JsonPath.read(response, "$.payload.refresh_token")).orElseThrow();
+        assertEquals("admin", access.subject());
+        assertEquals(1, access.userId());
+        assertEquals(List.of("USER"), access.authorities());
+        assertNotNull(access.tokenId());
+        assertEquals(access.sessionId(), refresh.get(TokenClaims.FAMILY_ID, String.class));
+        assertEquals("access", access.get(TokenClaims.TOKEN_USE, String.class));
+        assertEquals("refresh", refresh.get(TokenClaims.TOKEN_USE, String.class));
+    }
+
+    @Test
+    void login_invalidCredentials_badCredentialsError() {
+        webTestClient.post().uri("/api/auth/login")
+            .bodyValue(new LoginRequest("admin", "adminx"))
+            .exchange()
+            .expectStatus().isUnauthorized()
+            .expectBody().jsonPath("$.message").isEqualTo("Bad credentials");
+    }
+
+    @Test
+    void login_unknownUser_badCredentialsError() {
+        webTestClient.post().uri("/api/auth/login")
+            .bodyValue(new LoginRequest("nobody", "admin"))
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void login_hasValidAuthBearerToken_alreadyLoggedInError() {
+        String accessToken = JsonPath.read(login(new LoginRequest("admin", "admin")), "$.payload.access_token");
+
+        webTestClient.post().uri("/api/auth/login")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+            .bodyValue(new LoginRequest("admin", "admin"))
+            .exchange()
+            .expectStatus().isEqualTo(409)
+            .expectBody().jsonPath("$.message").isEqualTo("Already logged in.");
+    }
+
+    @Test
+    void refresh_validRefreshToken_rotatesWithinSession() {
+        String response = login(new LoginRequest("admin", "admin"));
+        String refreshToken = JsonPath.read(response, "$.payload.refresh_token");
+        String sessionId = tokenVerifier.verify(JsonPath.read(response, "$.payload.access_token"))
+            .map(TokenClaims::sessionId).orElseThrow();
+
+        String refreshed = refresh(refreshToken)
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+
+        String newRefreshToken = JsonPath.read(refreshed, "$.payload.refresh_token");
+        assertNotEquals(refreshToken, newRefreshToken);
+        assertEquals(sessionId, tokenVerifier.verify(JsonPath.read(refreshed, "$.payload.access_token"))
+            .map(TokenClaims::sessionId).orElseThrow());
+        refresh(refreshToken)
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.message").isEqualTo("RefreshToken is not valid.");
+    }
+
+    @Test
+    void refresh_missingBearerToken_forbidden() {
+        webTestClient.post().uri("/api/auth/refresh")
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void otherRoute_refreshTokenAsBearer_forbidden() {
+        String response = login(new LoginRequest("admin", "admin"));
+
+        webTestClient.get().uri("/api/other")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + JsonPath.read(response, "$.payload.refresh_token"))
+            .exchange()
+            .expectStatus().isForbidden();
+        webTestClient.get().uri("/api/other")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + JsonPath.read(response, "$.payload.access_token"))
+            .exchange()
+            .expectStatus().value(status -> assertNotEquals(403, status));
+    }
+
+    @Test
+    void refresh_tokenIssuedBeforeWatermark_forbidden() {
+        String refreshToken = JsonPath.read(login(new LoginRequest("joe", "admin")), "$.payload.refresh_token");
+        databaseClient.sql("UPDATE web_user SET tokens_valid_after = :at WHERE username = 'joe'")
+            .bind("at", Instant.now().plusSeconds(1))
+            .then()
+            .block();
+
+        refresh(refreshToken)
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void logout_validRefreshToken_refreshTokenNoLongerAccepted() {
+        String refreshToken = JsonPath.read(login(new LoginRequest("admin", "admin")), "$.payload.refresh_token");
+
+        webTestClient.post().uri("/api/auth/logout")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.message").isEqualTo("Successfully logged out.");
+
+        refresh(refreshToken)
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void logout_validRefreshToken_deniesTokenAndSessionOnServletNodes() throws Exception {
+        String refreshToken = JsonPath.read(login(new LoginRequest("admin", "admin")), "$.payload.refresh_token");
+        TokenClaims claims = tokenVerifier.verify(refreshToken).orElseThrow();
+        RecordedNotifications.clear();
+
+        webTestClient.post().uri("/api/auth/logout")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken)
+            .exchange()
+            .expectStatus().isOk();
+
+        List<RevocationEvent> events = new ArrayList<>();
+        for (Notification notification : RecordedNotifications.all()) {
+            assertEquals("token_revocations", notification.channel());
+            events.add(objectMapper.readValue(notification.payload(), RevocationEvent.class));
+        }
+        assertEquals(List.of(claims.tokenId(), claims.sessionId()), events.stream().map(RevocationEvent::key).toList());
+        assertTrue(events.stream().allMatch(event -> event.type() == Type.TOKEN_DENIED));
+        assertTrue(events.stream().allMatch(event -> event.until().isAfter(Instant.now())));
+    }
+
+    private String login(LoginRequest loginRequest) {
+        return webTestClient.post().uri("/api/auth/login")
+            .bodyValue(loginRequest)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+    }
+
+    private ResponseSpec refresh(String refreshToken) {
+        return webTestClient.post().uri("/api/auth/refresh")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken)
+            .exchange();
+    }
+
+}
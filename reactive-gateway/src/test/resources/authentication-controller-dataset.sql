@@ -0,0 +1,4 @@
+INSERT INTO web_user (id, first_name, last_name, username, password) VALUES
+(1, 'System', 'Administrator', 'admin', '$2a$10$PTXcYdrD4a1qW5MJ8vY67uOkHe.pIpKW0i2xDx.qripSN1bzn1Tfa'),
+(2, 'Joe', 'Mama', 'joe', '$2a$10$PTXcYdrD4a1qW5MJ8vY67uOkHe.pIpKW0i2xDx.qripSN1bzn1Tfa');
+
@@ -0,0 +1,2 @@
+DELETE FROM refresh_token;
+DELETE FROM web_user;
\ No newline at end of file
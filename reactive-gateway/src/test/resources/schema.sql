@@ -0,0 +1,22 @@
+-- Mirrors the tables the main application creates through Hibernate.
+CREATE TABLE IF NOT EXISTS web_user (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    tokens_valid_after TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token VARCHAR(64) NOT NULL UNIQUE,
+    expiry_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_date TIMESTAMP WITH TIME ZONE,
+    family_id VARCHAR(36),
+    web_user_id INTEGER NOT NULL REFERENCES web_user (id)
+);
+
+-- H2 has no LISTEN/NOTIFY; record notifications instead so that tests can read what was published.
+CREATE ALIAS IF NOT EXISTS pg_notify FOR 'com.paulcera.bentabox.gateway.RecordedNotifications.notify';